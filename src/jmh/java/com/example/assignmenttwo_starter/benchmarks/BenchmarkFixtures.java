@@ -0,0 +1,78 @@
+package com.example.assignmenttwo_starter.benchmarks;
+
+import com.example.assignmenttwo_starter.model.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds in-memory model objects for the benchmarks, so they do not need a database or a Spring context
+ */
+public class BenchmarkFixtures {
+    private static final String[] PRODUCT_IMAGES = {"IMG_25636.JPG", "IMG_25637.JPG", "IMG_25638.JPG", "IMG_25639.JPG", "no-image.JPG"};
+
+    /**
+     * Creates a pending order with the given number of line items, cycling through the product images in the thumbs directory
+     *
+     * @param lineItems The number of order items
+     * @return The order
+     */
+    public static Order createOrder(int lineItems) {
+        var customer = new Customer();
+        customer.setId(1);
+        customer.setFirstName("Pierce");
+        customer.setLastName("Doherty");
+
+        var orderStatus = new OrderStatus();
+        orderStatus.setId(5);
+        orderStatus.setName(OrderStatus.PENDING);
+
+        var order = new Order();
+        order.setId(1);
+        order.setOrderDate(new Date(1_650_000_000_000L));
+        order.setCustomer(customer);
+        order.setOrderStatus(orderStatus);
+
+        List<OrderItem> orderItems = new ArrayList<>(lineItems);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lineItems; i++) {
+            var category = new Category();
+            category.setId(i % 15 + 1);
+            category.setName("Category " + category.getId());
+
+            var product = new Product();
+            product.setId(i % 50 + 1);
+            product.setName("Product " + product.getId());
+            product.setImage(PRODUCT_IMAGES[i % PRODUCT_IMAGES.length]);
+            product.setPrice(new BigDecimal("9.99"));
+            product.setCategory(category);
+
+            var orderItem = new OrderItem();
+            orderItem.setId(i + 1);
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(i % 3 + 1);
+            orderItem.setPrice(product.getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+            orderItems.add(orderItem);
+            total = total.add(orderItem.getPrice());
+        }
+        order.setOrderItems(orderItems);
+        order.setTotal(total);
+        return order;
+    }
+
+    public static Subscription createSubscription() {
+        var subscription = new Subscription();
+        subscription.setId(1);
+        subscription.setName("Pettopia Weekly");
+        subscription.setDescription("Weekly pet care tips");
+        subscription.setUrl("https://www.pettopia.ie/subscriptions/weekly");
+        return subscription;
+    }
+
+    private BenchmarkFixtures() {
+        throw new IllegalStateException("Utility class");
+    }
+}
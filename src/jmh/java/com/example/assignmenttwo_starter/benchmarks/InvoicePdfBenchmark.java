@@ -0,0 +1,50 @@
+package com.example.assignmenttwo_starter.benchmarks;
+
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.services.InvoiceService;
+import com.example.assignmenttwo_starter.utilities.OrderPdfBuilder;
+import com.example.assignmenttwo_starter.utilities.ProductImageRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvoicePdfBenchmark {
+    @Param({"1", "10", "500"})
+    public int lineItems;
+
+    private Order order;
+    private ProductImageRegistry productImageRegistry;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkFixtures.createOrder(lineItems);
+        productImageRegistry = new ProductImageRegistry(InvoiceService.PRODUCTS_DIRECTORY_PATH);
+    }
+
+    /**
+     * Renders with a registry shared across renders, as the invoice service does
+     */
+    @Benchmark
+    public byte[] generatePdfReport() throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+        new OrderPdfBuilder(order, productImageRegistry).generatePdfReport(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Renders with a new registry per render, i.e. loading every product image again
+     */
+    @Benchmark
+    public byte[] generatePdfReportColdImages() throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+        new OrderPdfBuilder(order, InvoiceService.PRODUCTS_DIRECTORY_PATH).generatePdfReport(outputStream);
+        return outputStream.toByteArray();
+    }
+}
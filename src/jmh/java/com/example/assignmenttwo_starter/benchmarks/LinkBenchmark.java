@@ -0,0 +1,64 @@
+package com.example.assignmenttwo_starter.benchmarks;
+
+import com.example.assignmenttwo_starter.utilities.IdLinkTemplate;
+import com.example.assignmenttwo_starter.web.rest.controllers.CustomerRestController;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * The self links of a list of customers, built with a methodOn proxy per customer and from a precomputed template
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LinkBenchmark {
+    private static final IdLinkTemplate SELF_LINK = new IdLinkTemplate(() -> methodOn(CustomerRestController.class).getCustomerById(null, null));
+
+    @Param({"1", "100", "1000"})
+    public int elements;
+
+    @Setup
+    public void setUp() {
+        var request = new MockHttpServletRequest("GET", "/customers");
+        request.setServerName("shop.example.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<Link> methodOnLinks() {
+        var links = new ArrayList<Link>(elements);
+        for (int id = 1; id <= elements; id++) {
+            links.add(linkTo(methodOn(CustomerRestController.class).getCustomerById(id, null)).withSelfRel());
+        }
+        return links;
+    }
+
+    @Benchmark
+    public List<Link> templateLinks() {
+        var links = new ArrayList<Link>(elements);
+        String baseUri = IdLinkTemplate.getBaseUri();
+        for (int id = 1; id <= elements; id++) {
+            links.add(SELF_LINK.expand(baseUri, id, IanaLinkRelations.SELF));
+        }
+        return links;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.assignmenttwo_starter.benchmarks;
+
+import com.example.assignmenttwo_starter.utilities.QrCodeUtility;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QrCodeBenchmark {
+    @Param({"125", "275", "550"})
+    public int pixelLength;
+
+    private String url;
+
+    @Setup
+    public void setUp() {
+        url = BenchmarkFixtures.createSubscription().getUrl();
+    }
+
+    @Benchmark
+    public BufferedImage getQrCodeImage() throws Exception {
+        return QrCodeUtility.getQrCodeImage(url, pixelLength);
+    }
+
+    /**
+     * Encodes the PNG straight from the QR matrix, without the BufferedImage round trip
+     */
+    @Benchmark
+    public byte[] getQrCodePng() throws Exception {
+        return QrCodeUtility.getQrCodePng(url, pixelLength);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.assignmenttwo_starter.benchmarks;
+
+import com.example.assignmenttwo_starter.model.Subscription;
+import com.example.assignmenttwo_starter.utilities.QrCodeUtility;
+import com.example.assignmenttwo_starter.utilities.SubscriptionVCardUtility;
+import net.glxn.qrgen.core.vcard.VCard;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriptionVCardBenchmark {
+    private Subscription subscription;
+
+    @Setup
+    public void setUp() {
+        subscription = BenchmarkFixtures.createSubscription();
+    }
+
+    @Benchmark
+    public String getVCard() {
+        VCard vCard = SubscriptionVCardUtility.getVCard(subscription);
+        return vCard.toString();
+    }
+
+    /**
+     * The whole /subscriptions/{id}/vcard path: the vCard and its QR code at the size the endpoint uses
+     */
+    @Benchmark
+    public BufferedImage getVCardQrCodeImage() throws Exception {
+        VCard vCard = SubscriptionVCardUtility.getVCard(subscription);
+        return QrCodeUtility.getQrCodeImage(vCard.toString(), 275);
+    }
+}
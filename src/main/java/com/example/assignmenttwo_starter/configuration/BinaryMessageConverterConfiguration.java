@@ -0,0 +1,31 @@
+package com.example.assignmenttwo_starter.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.mediatype.hal.HalMediaTypeConfiguration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary representations (CBOR and Smile) of everything the controllers serve as JSON.
+ * The mappers are built from the same builder as the JSON one, so they share its settings,
+ * and render HATEOAS links in the same HAL form as application/json.
+ * Spring MVC registers plain CBOR and Smile converters when the formats are on the classpath; these replace them.
+ */
+@Configuration
+public class BinaryMessageConverterConfiguration {
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder, HalMediaTypeConfiguration halConfiguration) {
+        return new MappingJackson2CborHttpMessageConverter(halConfiguration.configureObjectMapper(objectMapperBuilder.factory(new CBORFactory()).build()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder, HalMediaTypeConfiguration halConfiguration) {
+        return new MappingJackson2SmileHttpMessageConverter(halConfiguration.configureObjectMapper(objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.assignmenttwo_starter.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.hateoas.CollectionModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The result of reading a batch of records by id: the records found, in the order their ids were asked for,
+ * and the ids that were not found, so one missing record does not fail the whole batch
+ *
+ * @param <T> The type of the records
+ */
+public class BatchModel<T> extends CollectionModel<T> {
+    private final List<Integer> missingIds;
+
+    private BatchModel(List<T> content, List<Integer> missingIds) {
+        super(content);
+        this.missingIds = missingIds;
+    }
+
+    /**
+     * Puts records found by id in the order their ids were asked for
+     *
+     * @param ids        The ids asked for, duplicates are only answered once
+     * @param found      The records found, in any order
+     * @param idFunction Gets the id of a record
+     * @return The records in the order of the ids, and the ids without a record
+     */
+    public static <T> BatchModel<T> of(Collection<Integer> ids, Collection<T> found, Function<T, Integer> idFunction) {
+        Map<Integer, T> foundById = new HashMap<>();
+        for (T record : found) {
+            foundById.put(idFunction.apply(record), record);
+        }
+
+        List<T> content = new ArrayList<>(found.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            T record = foundById.get(id);
+            if (record != null) {
+                content.add(record);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchModel<>(content, missingIds);
+    }
+
+    /**
+     * @return The ids asked for that have no record, in the order they were asked for
+     */
+    @JsonProperty("missingIds")
+    public List<Integer> getMissingIds() {
+        return missingIds;
+    }
+}
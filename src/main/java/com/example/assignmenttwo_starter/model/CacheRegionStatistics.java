@@ -0,0 +1,14 @@
+package com.example.assignmenttwo_starter.model;
+
+/**
+ * Usage of one second-level cache region since startup (or since the statistics were last cleared)
+ *
+ * @param region               The name of the region, as configured in ehcache.xml
+ * @param hits                 The number of lookups answered from the region
+ * @param misses               The number of lookups that had to go to the database
+ * @param puts                 The number of entries stored in the region
+ * @param elementCountInMemory The number of entries currently held, or -1 if the cache provider does not report it
+ * @param hitRatio             hits / (hits + misses), or 0 if there were no lookups
+ */
+public record CacheRegionStatistics(String region, long hits, long misses, long puts, long elementCountInMemory, double hitRatio) {
+}
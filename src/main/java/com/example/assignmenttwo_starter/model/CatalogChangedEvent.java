@@ -0,0 +1,9 @@
+package com.example.assignmenttwo_starter.model;
+
+/**
+ * Published when a category, product or order status is written through JPA
+ *
+ * @param entity The changed entity
+ */
+public record CatalogChangedEvent(Object entity) {
+}
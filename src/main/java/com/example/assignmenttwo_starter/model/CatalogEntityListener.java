@@ -0,0 +1,24 @@
+package com.example.assignmenttwo_starter.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes a {@link CatalogChangedEvent} whenever a category, product or order status is written through JPA,
+ * so the catalog snapshot can be rebuilt.
+ * Instantiated by Hibernate through Spring, so the event publisher is injected.
+ */
+public class CatalogEntityListener {
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCatalogChanged(Object entity) {
+        applicationEventPublisher.publishEvent(new CatalogChangedEvent(entity));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.assignmenttwo_starter.model;
+
+import com.example.assignmenttwo_starter.utilities.IntMap;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * An immutable copy of the catalog (categories, products and order statuses) for lookups that must not touch the
+ * persistence context, such as rendering invoices and serializing orders.
+ * A snapshot never changes once built; a refresh builds a whole new snapshot and installs it in one step
+ * (see {@link #install(CatalogSnapshot)}), so a reader always sees one consistent version of the catalog.
+ */
+public final class CatalogSnapshot {
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(List.of(), List.of(), List.of());
+
+    private static volatile CatalogSnapshot current = EMPTY;
+
+    private final IntMap<CategoryEntry> categories;
+    private final IntMap<ProductEntry> products;
+    private final IntMap<OrderStatusEntry> orderStatuses;
+    private final Map<String, Integer> orderStatusIdsByName;
+
+    /**
+     * @param categories    The categories, whose product lists are ignored and rebuilt from the products
+     * @param products      The products
+     * @param orderStatuses The order statuses
+     */
+    public CatalogSnapshot(Collection<CategoryEntry> categories, Collection<ProductEntry> products, Collection<OrderStatusEntry> orderStatuses) {
+        this.products = IntMap.of(products, ProductEntry::id);
+
+        Map<Integer, List<ProductEntry>> productsByCategory = new HashMap<>();
+        for (ProductEntry product : this.products.values()) {
+            productsByCategory.computeIfAbsent(product.categoryId(), key -> new ArrayList<>()).add(product);
+        }
+        this.categories = IntMap.of(
+                categories.stream()
+                        .map(category -> new CategoryEntry(category.id(), category.name(), productsByCategory.getOrDefault(category.id(), List.of())))
+                        .toList(),
+                CategoryEntry::id);
+
+        this.orderStatuses = IntMap.of(orderStatuses, OrderStatusEntry::id);
+        Map<String, Integer> idsByName = new HashMap<>();
+        for (OrderStatusEntry orderStatus : orderStatuses) {
+            idsByName.put(orderStatus.name().toLowerCase(Locale.ROOT), orderStatus.id());
+        }
+        this.orderStatusIdsByName = Map.copyOf(idsByName);
+    }
+
+    /**
+     * @return The installed snapshot, or {@link #EMPTY} if none has been loaded yet
+     */
+    public static CatalogSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Replaces the installed snapshot
+     *
+     * @param snapshot The new snapshot
+     */
+    public static void install(CatalogSnapshot snapshot) {
+        current = Objects.requireNonNull(snapshot);
+    }
+
+    public CategoryEntry getCategory(int categoryId) {
+        return categories.get(categoryId);
+    }
+
+    public List<CategoryEntry> getCategories() {
+        return categories.values();
+    }
+
+    public ProductEntry getProduct(int productId) {
+        return products.get(productId);
+    }
+
+    /**
+     * Gets the entry of a product, falling back to reading the entity if the product is newer than the snapshot.
+     * Only the id of the product is read when the snapshot has it, so a lazy proxy is not initialized.
+     *
+     * @param product The product
+     * @return The entry of the product
+     */
+    public ProductEntry getProduct(Product product) {
+        ProductEntry entry = products.get(product.getId());
+        return entry != null ? entry : ProductEntry.of(product);
+    }
+
+    public List<ProductEntry> getProducts() {
+        return products.values();
+    }
+
+    public OrderStatusEntry getOrderStatus(int orderStatusId) {
+        return orderStatuses.get(orderStatusId);
+    }
+
+    /**
+     * @param name The name of an order status, in any case
+     * @return Whether the snapshot has an order status with this name
+     */
+    public boolean hasOrderStatus(String name) {
+        return orderStatusIdsByName.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param orderStatusId The id of an order status
+     * @param name          The name of an order status, in any case
+     * @return Whether the order status with the id has the name
+     */
+    public boolean isOrderStatus(int orderStatusId, String name) {
+        Integer id = orderStatusIdsByName.get(name.toLowerCase(Locale.ROOT));
+        return id != null && id == orderStatusId;
+    }
+
+    /**
+     * @param names The names of order statuses, in any case
+     * @return The ids of the order statuses with these names, leaving out names that are not in the snapshot
+     */
+    public List<Integer> getOrderStatusIds(String... names) {
+        return Arrays.stream(names)
+                .map(name -> orderStatusIdsByName.get(name.toLowerCase(Locale.ROOT)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public record CategoryEntry(int id, String name, List<ProductEntry> products) {
+        public CategoryEntry {
+            products = List.copyOf(products);
+        }
+    }
+
+    public record ProductEntry(int id, String name, String description, BigDecimal price, String image, int categoryId, String categoryName) {
+        public static ProductEntry of(Product product) {
+            Category category = product.getCategory();
+            return new ProductEntry(product.getId(), product.getName(), product.getDescription(), product.getPrice(), product.getImage(),
+                    category == null ? 0 : category.getId(), category == null ? null : category.getName());
+        }
+    }
+
+    public record OrderStatusEntry(int id, String name) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of the products of one category over the items of the orders that are not cancelled
+ *
+ * @param categoryId   The ID of the category
+ * @param categoryName The name of the category, or null if it is no longer in the catalog
+ * @param unitsSold    The sum of the quantities of the order items
+ * @param revenue      The sum of the prices of the order items
+ */
+public record CategorySales(int categoryId, String categoryName, long unitsSold, BigDecimal revenue) {
+}
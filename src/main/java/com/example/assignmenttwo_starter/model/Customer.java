@@ -1,6 +1,7 @@
 package com.example.assignmenttwo_starter.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
@@ -9,6 +10,9 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.io.Serializable;
@@ -21,6 +25,8 @@ import java.util.List;
 @ToString
 @Entity
 @Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customer")
 public class Customer extends RepresentationModel<Customer> implements Serializable {
 
     @Id
@@ -62,6 +68,12 @@ public class Customer extends RepresentationModel<Customer> implements Serializa
     @Column(name = "postcode")
     private String postcode;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
     @OneToMany(mappedBy = "customer")
     @JsonManagedReference
     @ToString.Exclude
@@ -0,0 +1,20 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk customer import
+ *
+ * @param imported        The number of customers inserted
+ * @param failed          The number of rows that were rejected
+ * @param errors          The reasons rows were rejected, at most the configured number of them
+ * @param errorsTruncated Whether more rows were rejected than are listed in errors
+ */
+public record CustomerImportResult(long imported, long failed, List<RowError> errors, boolean errorsTruncated) {
+    /**
+     * @param row     The 1-based number of the data row, not counting a CSV header
+     * @param message Why the row was rejected
+     */
+    public record RowError(long row, String message) {
+    }
+}
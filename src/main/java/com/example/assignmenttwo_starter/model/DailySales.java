@@ -0,0 +1,16 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of the orders placed on one day that are not cancelled
+ *
+ * @param date              The order date
+ * @param orders            The number of orders
+ * @param revenue           The sum of the order totals
+ * @param averageOrderValue The revenue divided by the number of orders
+ * @param unitsSold         The sum of the quantities of the order items
+ */
+public record DailySales(LocalDate date, long orders, BigDecimal revenue, BigDecimal averageOrderValue, long unitsSold) {
+}
@@ -0,0 +1,26 @@
+package com.example.assignmenttwo_starter.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * The database-backed counter an id allocator reserves blocks of ids from.
+ * nextId is the first id that has not been handed out to any allocator yet.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "id_blocks")
+public class IdBlock implements Serializable {
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "next_id", nullable = false)
+    private int nextId;
+}
@@ -2,10 +2,12 @@ package com.example.assignmenttwo_starter.model;
 
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.io.Serializable;
@@ -19,8 +21,30 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date", columnList = "order_date"),
+        @Index(name = "idx_orders_order_status_id_order_date", columnList = "order_status_id, order_date"),
+        @Index(name = "idx_orders_customer_id", columnList = "customer_id")
+})
+@EntityListeners(OrderEntityListener.class)
+@NamedEntityGraph(name = Order.GRAPH_ITEMS, attributeNodes = @NamedAttributeNode("orderItems"))
+@NamedEntityGraph(
+        name = Order.GRAPH_INVOICE,
+        attributeNodes = {
+                @NamedAttributeNode("customer"),
+                @NamedAttributeNode("orderStatus"),
+                @NamedAttributeNode("orderItems")
+        })
 public class Order extends RepresentationModel<Order> implements Serializable {
+    /**
+     * Fetch plan for the order representation: the order and its items
+     */
+    public static final String GRAPH_ITEMS = "Order.items";
+    /**
+     * Fetch plan for the invoice: the order, its customer, status and items.
+     * Products and categories are read from the {@link CatalogSnapshot}
+     */
+    public static final String GRAPH_INVOICE = "Order.invoice";
 
     @Id
     @Basic(optional = false)
@@ -36,13 +60,20 @@ public class Order extends RepresentationModel<Order> implements Serializable {
     @Column(name = "total")
     private BigDecimal total;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
     @JoinColumn(name = "customer_id", referencedColumnName = "customer_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
+    @ToString.Exclude
     private Customer customer;
 
     @JoinColumn(name = "order_status_id", referencedColumnName = "order_status_id")
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JsonBackReference
     @ToString.Exclude
     private OrderStatus orderStatus;
@@ -0,0 +1,10 @@
+package com.example.assignmenttwo_starter.model;
+
+/**
+ * Published when an order is created, updated or removed
+ *
+ * @param orderId The ID of the order
+ * @param active  Whether the order is pending or processing (false if it was removed)
+ */
+public record OrderChangedEvent(Integer orderId, boolean active) {
+}
@@ -0,0 +1,59 @@
+package com.example.assignmenttwo_starter.model;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Publishes {@link OrderChangedEvent}s for the order entity listeners at most once per order and transaction.
+ * Saving an order with its items calls the listeners once for the order and once for every item,
+ * and each event makes the listeners re-read the whole order after the commit, so the repeats are dropped.
+ * Outside a transaction every event is published.
+ */
+final class OrderChangedEventPublisher {
+    private static final Object PUBLISHED_EVENTS_KEY = new Object();
+
+    private OrderChangedEventPublisher() {
+    }
+
+    static void publishOncePerTransaction(ApplicationEventPublisher applicationEventPublisher, OrderChangedEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !getPublishedEvents().add(event)) {
+            return;
+        }
+        applicationEventPublisher.publishEvent(event);
+    }
+
+    /**
+     * @return The events already published in the current transaction, bound to it until it completes
+     */
+    @SuppressWarnings("unchecked")
+    private static Set<OrderChangedEvent> getPublishedEvents() {
+        Set<OrderChangedEvent> publishedEvents = (Set<OrderChangedEvent>) TransactionSynchronizationManager.getResource(PUBLISHED_EVENTS_KEY);
+        if (publishedEvents == null) {
+            Set<OrderChangedEvent> newPublishedEvents = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(PUBLISHED_EVENTS_KEY, newPublishedEvents);
+            // Unbound while a REQUIRES_NEW transaction runs inside this one, so that transaction gets its own set
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(PUBLISHED_EVENTS_KEY);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(PUBLISHED_EVENTS_KEY, newPublishedEvents);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PUBLISHED_EVENTS_KEY);
+                }
+            });
+            publishedEvents = newPublishedEvents;
+        }
+        return publishedEvents;
+    }
+}
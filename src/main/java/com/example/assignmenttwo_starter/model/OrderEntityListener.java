@@ -0,0 +1,29 @@
+package com.example.assignmenttwo_starter.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes an {@link OrderChangedEvent} whenever an order is written through JPA,
+ * once per transaction together with the events of its items, see {@link OrderChangedEventPublisher}.
+ * Instantiated by Hibernate through Spring, so the event publisher is injected.
+ */
+public class OrderEntityListener {
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onOrderSaved(Order order) {
+        boolean active = order.getOrderStatus() != null && order.getOrderStatus().isPendingOrProcessing();
+        OrderChangedEventPublisher.publishOncePerTransaction(applicationEventPublisher, new OrderChangedEvent(order.getId(), active));
+    }
+
+    @PostRemove
+    public void onOrderRemoved(Order order) {
+        OrderChangedEventPublisher.publishOncePerTransaction(applicationEventPublisher, new OrderChangedEvent(order.getId(), false));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Conditions an order must meet to be listed. A null component does not filter.
+ *
+ * @param orderStatusIds The ids of the statuses the order may have
+ * @param from           The earliest order date (inclusive)
+ * @param to             The latest order date (exclusive)
+ * @param customerId     The ID of the customer who placed the order
+ * @param minTotal       The smallest total (inclusive)
+ * @param maxTotal       The largest total (inclusive)
+ */
+public record OrderFilter(Collection<Integer> orderStatusIds, Date from, Date to, Integer customerId, BigDecimal minTotal, BigDecimal maxTotal) {
+}
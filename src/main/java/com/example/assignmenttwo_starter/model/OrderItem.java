@@ -1,6 +1,7 @@
 package com.example.assignmenttwo_starter.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -17,6 +18,7 @@ import java.math.BigDecimal;
 @ToString
 @Entity
 @Table(name = "order_items")
+@EntityListeners(OrderItemEntityListener.class)
 public class OrderItem  implements Serializable {
 
     @Id
@@ -32,14 +34,30 @@ public class OrderItem  implements Serializable {
     private BigDecimal price;
 
     @JoinColumn(name = "order_id", referencedColumnName = "order_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @ToString.Exclude
     private Order order;
 
     @JoinColumn(name = "product_id", referencedColumnName = "product_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @ToString.Exclude
     private Product product;
+
+    /**
+     * @return The name of the product, read from the catalog snapshot rather than the (lazy) product
+     */
+    @JsonProperty(value = "productName", access = JsonProperty.Access.READ_ONLY)
+    public String getProductName() {
+        return product == null ? null : CatalogSnapshot.current().getProduct(product).name();
+    }
+
+    /**
+     * @return The name of the category of the product, read from the catalog snapshot rather than the (lazy) product
+     */
+    @JsonProperty(value = "categoryName", access = JsonProperty.Access.READ_ONLY)
+    public String getCategoryName() {
+        return product == null ? null : CatalogSnapshot.current().getProduct(product).categoryName();
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.assignmenttwo_starter.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publishes an {@link OrderChangedEvent} for the order of an item whenever the item is written through JPA,
+ * as the invoice and the sales figures of the order depend on its items.
+ * An order gets one event per transaction however many of its items are written, see {@link OrderChangedEventPublisher}.
+ * Instantiated by Hibernate through Spring, so the event publisher is injected.
+ */
+public class OrderItemEntityListener {
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onOrderItemChanged(OrderItem orderItem) {
+        Order order = orderItem.getOrder();
+        if (order == null) {
+            return;
+        }
+        boolean active = order.getOrderStatus() != null && order.getOrderStatus().isPendingOrProcessing();
+        OrderChangedEventPublisher.publishOncePerTransaction(applicationEventPublisher, new OrderChangedEvent(order.getId(), active));
+    }
+}
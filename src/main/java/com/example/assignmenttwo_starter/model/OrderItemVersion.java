@@ -0,0 +1,20 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of an order and one of its items that the representation of a customer or an order depends on,
+ * read in one query without loading the entities, so a conditional request can be answered from them.
+ * An order without items has a single row with a null item.
+ *
+ * @param rootVersion  The version of the entity the rows were read for: the customer, or the order itself
+ * @param orderId      The ID of the order, or null for a customer without orders
+ * @param orderVersion The version of the order
+ * @param itemId       The ID of the item, or null for an order without items
+ * @param quantity     The quantity of the item
+ * @param price        The price of the item
+ * @param productId    The ID of the product of the item
+ */
+public record OrderItemVersion(Long rootVersion, Integer orderId, Long orderVersion,
+                               Integer itemId, Integer quantity, BigDecimal price, Integer productId) {
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import net.minidev.json.annotate.JsonIgnore;
 
 import java.io.Serializable;
@@ -18,7 +20,15 @@ import java.util.List;
 @ToString
 @Entity
 @Table(name = "order_status")
+@EntityListeners(CatalogEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "order-status")
 public class OrderStatus implements Serializable {
+    public static final String SHIPPED = "Shipped";
+    public static final String DELIVERED = "Delivered";
+    public static final String PROCESSING = "Processing";
+    public static final String CANCELLED = "Cancelled";
+    public static final String PENDING = "Pending";
 
     @Id
     @Basic(optional = false)
@@ -40,30 +50,42 @@ public class OrderStatus implements Serializable {
     // Status Methods
     @JsonIgnore
     public boolean isCancelled() {
-        return this.id == 4;
+        return hasStatus(CANCELLED);
     }
 
     @JsonIgnore
     public boolean isDelivered() {
-        return this.id == 2;
+        return hasStatus(DELIVERED);
     }
 
     @JsonIgnore
     public boolean isPending() {
-        return this.id == 5;
+        return hasStatus(PENDING);
     }
     @JsonIgnore
     public boolean isProcessing() {
-        return this.id == 3;
+        return hasStatus(PROCESSING);
     }
 
     @JsonIgnore
     public boolean isShipped() {
-        return this.id == 1;
+        return hasStatus(SHIPPED);
     }
     // More Status Methods
     @JsonIgnore
     public boolean isPendingOrProcessing() {
         return isPending() || isProcessing();
     }
+
+    /**
+     * Checks the status against the order status table of the catalog snapshot,
+     * or against this status' own name if the snapshot does not know the status name (for example before it is loaded)
+     */
+    private boolean hasStatus(String statusName) {
+        CatalogSnapshot catalog = CatalogSnapshot.current();
+        if (id != null && catalog.hasOrderStatus(statusName)) {
+            return catalog.isOrderStatus(id, statusName);
+        }
+        return statusName.equalsIgnoreCase(name);
+    }
 }
\ No newline at end of file
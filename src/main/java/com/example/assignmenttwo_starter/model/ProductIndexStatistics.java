@@ -0,0 +1,12 @@
+package com.example.assignmenttwo_starter.model;
+
+/**
+ * The size of the in-memory product search index
+ *
+ * @param products       The number of products indexed
+ * @param terms          The number of distinct terms
+ * @param postings       The number of (term, product) pairs
+ * @param estimatedBytes The approximate heap used by the terms and posting lists, not counting the products themselves
+ */
+public record ProductIndexStatistics(int products, int terms, long postings, long estimatedBytes) {
+}
@@ -0,0 +1,112 @@
+package com.example.assignmenttwo_starter.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * The running totals of the ratings of a product's reviews, updated in the same transaction as the reviews,
+ * so the average rating and histogram of a product cost one row however many reviews it has
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "product_ratings")
+public class ProductRating implements Serializable {
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @JsonIgnore
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @JsonIgnore
+    @Column(name = "rating_1_count", nullable = false)
+    private long rating1Count;
+
+    @JsonIgnore
+    @Column(name = "rating_2_count", nullable = false)
+    private long rating2Count;
+
+    @JsonIgnore
+    @Column(name = "rating_3_count", nullable = false)
+    private long rating3Count;
+
+    @JsonIgnore
+    @Column(name = "rating_4_count", nullable = false)
+    private long rating4Count;
+
+    @JsonIgnore
+    @Column(name = "rating_5_count", nullable = false)
+    private long rating5Count;
+
+    /**
+     * @param productId The ID of a product with no reviews yet
+     */
+    public ProductRating(Integer productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * @return The mean rating to two decimal places, or null if there are no reviews
+     */
+    @JsonProperty(value = "averageRating", access = JsonProperty.Access.READ_ONLY)
+    public BigDecimal getAverageRating() {
+        return reviewCount == 0 ? null : BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(reviewCount), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * @return The number of reviews with each rating, from 1 to 5
+     */
+    @JsonProperty(value = "histogram", access = JsonProperty.Access.READ_ONLY)
+    public List<Long> getHistogram() {
+        return List.of(rating1Count, rating2Count, rating3Count, rating4Count, rating5Count);
+    }
+
+    /**
+     * Counts a review in the totals
+     *
+     * @param rating The rating of the review, from 1 to 5
+     */
+    public void add(int rating) {
+        change(rating, 1);
+    }
+
+    /**
+     * Takes a review out of the totals
+     *
+     * @param rating The rating of the review, from 1 to 5
+     */
+    public void remove(int rating) {
+        change(rating, -1);
+    }
+
+    private void change(int rating, int sign) {
+        switch (rating) {
+            case 1 -> rating1Count += sign;
+            case 2 -> rating2Count += sign;
+            case 3 -> rating3Count += sign;
+            case 4 -> rating4Count += sign;
+            case 5 -> rating5Count += sign;
+            default -> throw new IllegalArgumentException("Rating must be from " + MIN_RATING + " to " + MAX_RATING + ": " + rating);
+        }
+        reviewCount += sign;
+        ratingSum += (long) sign * rating;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.assignmenttwo_starter.model;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+/**
+ * A product to create, or the new values of a product to update
+ *
+ * @param name        The name
+ * @param description The description, if any
+ * @param price       The price
+ * @param image       The image file name, if any
+ * @param categoryId  The ID of the category
+ */
+public record ProductRequest(@NotBlank @Size(max = 255) String name,
+                             @Size(max = 65535) String description,
+                             @NotNull @DecimalMin("0.00") BigDecimal price,
+                             @Size(max = 255) String image,
+                             @NotNull Integer categoryId) {
+}
@@ -0,0 +1,21 @@
+package com.example.assignmenttwo_starter.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A review in a product's review feed
+ *
+ * @param id         The ID of the review
+ * @param customerId The ID of the customer who wrote it
+ * @param rating     The rating, from 1 to 5
+ * @param comment    The comment, or null if comments were not asked for
+ */
+public record ProductReview(Integer id, Integer customerId, Integer rating,
+                            @JsonInclude(JsonInclude.Include.NON_NULL) String comment) {
+    /**
+     * A review without its comment, which is a LOB and only read when asked for
+     */
+    public ProductReview(Integer id, Integer customerId, Integer rating) {
+        this(id, customerId, rating, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of one product over the items of the orders that are not cancelled
+ *
+ * @param productId    The ID of the product
+ * @param productName  The name of the product, or null if it is no longer in the catalog
+ * @param categoryName The name of the category of the product, or null if it is no longer in the catalog
+ * @param unitsSold    The sum of the quantities of the order items
+ * @param revenue      The sum of the prices of the order items
+ */
+public record ProductSales(int productId, String productName, String categoryName, long unitsSold, BigDecimal revenue) {
+}
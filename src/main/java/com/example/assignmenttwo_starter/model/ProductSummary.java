@@ -0,0 +1,25 @@
+package com.example.assignmenttwo_starter.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * A product as listed by the product API, with its rating
+ *
+ * @param id            The ID of the product
+ * @param name          The name
+ * @param description   The description
+ * @param price         The price
+ * @param image         The image file name
+ * @param categoryId    The ID of the category
+ * @param categoryName  The name of the category
+ * @param reviewCount   The number of reviews
+ * @param averageRating The average rating of the reviews, or null if there are none
+ * @param score         How well the product matches the search, or null if there were no search terms
+ */
+public record ProductSummary(int id, String name, String description, BigDecimal price, String image,
+                             int categoryId, String categoryName, long reviewCount,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) BigDecimal averageRating,
+                             @JsonInclude(JsonInclude.Include.NON_NULL) Double score) {
+}
@@ -0,0 +1,24 @@
+package com.example.assignmenttwo_starter.model;
+
+/**
+ * Usage of the rendering executor since startup (or since the statistics were last cleared)
+ *
+ * @param threads           The number of renders that may run at once
+ * @param queueCapacity     The number of renders that may wait for a thread before further ones are rejected
+ * @param activeRenders     The number of renders running now
+ * @param queuedRenders     The number of renders waiting for a thread now
+ * @param submitted         The number of renders accepted
+ * @param completed         The number of renders that finished
+ * @param failed            The number of renders that threw
+ * @param rejected          The number of renders turned away because every thread was busy and the queue was full
+ * @param averageWaitMillis The average time accepted renders waited for a thread
+ * @param maxWaitMillis     The longest time an accepted render waited for a thread
+ * @param activeRequests    The number of requests to rendering endpoints being prepared (looked up, checked against the caches) now
+ * @param queuedRequests    The number of requests to rendering endpoints waiting to be prepared now
+ * @param rejectedRequests  The number of requests to rendering endpoints turned away because the request pool was full
+ */
+public record RenderingStatistics(int threads, int queueCapacity, int activeRenders, int queuedRenders,
+                                  long submitted, long completed, long failed, long rejected,
+                                  double averageWaitMillis, double maxWaitMillis,
+                                  int activeRequests, int queuedRequests, long rejectedRequests) {
+}
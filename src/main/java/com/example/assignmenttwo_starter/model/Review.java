@@ -15,7 +15,7 @@ import java.io.Serializable;
 @AllArgsConstructor
 @ToString
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = @Index(name = "idx_reviews_product_id_review_id", columnList = "product_id, review_id"))
 public class Review implements Serializable {
 
     @Id
@@ -32,13 +32,13 @@ public class Review implements Serializable {
     private String comment;
 
     @JoinColumn(name = "product_id", referencedColumnName = "product_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @ToString.Exclude
     private Product product;
 
     @JoinColumn(name = "customer_id", referencedColumnName = "customer_id")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonBackReference
     @ToString.Exclude
     private Customer customer;
@@ -0,0 +1,18 @@
+package com.example.assignmenttwo_starter.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A review to add to a product
+ *
+ * @param customerId The ID of the customer writing the review
+ * @param rating     The rating, from 1 to 5
+ * @param comment    The comment, if any
+ */
+public record ReviewRequest(@NotNull Integer customerId,
+                            @NotNull @Min(ProductRating.MIN_RATING) @Max(ProductRating.MAX_RATING) Integer rating,
+                            @Size(max = 65535) String comment) {
+}
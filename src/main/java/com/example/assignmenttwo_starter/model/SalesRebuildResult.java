@@ -0,0 +1,10 @@
+package com.example.assignmenttwo_starter.model;
+
+/**
+ * The outcome of recomputing the sales figures from scratch
+ *
+ * @param orders         The number of orders counted, i.e. those that are not cancelled
+ * @param durationMillis How long the rebuild took
+ */
+public record SalesRebuildResult(long orders, long durationMillis) {
+}
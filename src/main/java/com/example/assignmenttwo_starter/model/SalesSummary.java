@@ -0,0 +1,14 @@
+package com.example.assignmenttwo_starter.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales over all orders that are not cancelled
+ *
+ * @param orders            The number of orders
+ * @param revenue           The sum of the order totals
+ * @param averageOrderValue The revenue divided by the number of orders
+ * @param unitsSold         The sum of the quantities of the order items
+ */
+public record SalesSummary(long orders, BigDecimal revenue, BigDecimal averageOrderValue, long unitsSold) {
+}
@@ -3,9 +3,11 @@ package com.example.assignmenttwo_starter.model;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.io.Serializable;
@@ -34,4 +36,10 @@ public class Subscription extends RepresentationModel<Subscription> implements S
     @NotBlank
     @Pattern(regexp = "^https?://.+")
     private String url;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+}
@@ -1,27 +1,74 @@
 package com.example.assignmenttwo_starter.repositories;
 
 import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     /**
-     * Simple query to get the next free id in the database
-     * For example, if the database contains 1, 2, 5, 6, 7, 8, 9, 10
-     * then the next free id is 11
-     * Another example, if the database contains 2, 5, 7
-     * then the next free id is 8
-     * If the database has no records the maz is 0 + 1 = 1
+     * Gets the greatest id in use, which the id allocator never hands out ids at or below
      *
-     * @return The next free id (Max + 1)
+     * @return The greatest id, or 0 if there are no records
      */
-    @Query("SELECT MAX(customer.id) + 1 FROM Customer customer")
-    public int getNextFreeId();
+    @Query("SELECT COALESCE(MAX(customer.id), 0) FROM Customer customer")
+    int getMaxId();
 
+    /**
+     * Reads the versions of a customer and their orders and the columns of the order items,
+     * for conditional requests that do not need the whole customer
+     *
+     * @param id The ID of the customer
+     * @return One row per order item, or per order without items, or one row without an order if the customer has none.
+     * Empty if the customer does not exist.
+     */
+    @Query("SELECT new com.example.assignmenttwo_starter.model.OrderItemVersion(customer.version, o.id, o.version, item.id, item.quantity, item.price, item.product.id) " +
+            "FROM Customer customer LEFT JOIN customer.orders o LEFT JOIN o.orderItems item WHERE customer.id = :id ORDER BY o.id, item.id")
+    List<OrderItemVersion> findOrderItemVersionsById(@Param("id") Integer id);
+
+    /**
+     * Cached query, the result is kept in the customers-by-first-name region until the customers table changes.
+     * The customers themselves come from the customer region and their orders are batch fetched.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "customers-by-first-name")
+    })
     List<Customer> findAllByFirstNameEqualsIgnoreCase(String firstname);
-}
 
+    @EntityGraph(attributePaths = "orders")
+    List<Customer> findAllWithOrdersByOrderById();
+
+    @EntityGraph(attributePaths = "orders")
+    Optional<Customer> findWithOrdersById(Integer id);
+
+    @EntityGraph(attributePaths = "orders")
+    List<Customer> findAllWithOrdersByIdIn(Collection<Integer> ids);
+
+    Slice<Customer> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    Slice<Customer> findByIdLessThanOrderByIdDesc(Integer id, Pageable pageable);
+
+    /**
+     * Streams all customers in id order from a database cursor. Must be consumed inside a (read only) transaction.
+     *
+     * @return The stream of customers, which must be closed
+     */
+    @Query("SELECT customer FROM Customer customer ORDER BY customer.id")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Customer> streamAllByOrderById();
+}
@@ -0,0 +1,36 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.IdBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdBlockRepository extends JpaRepository<IdBlock, String> {
+    /**
+     * Gets a counter and locks its row until the end of the transaction, so concurrent reservations are serialized
+     *
+     * @param name The name of the counter
+     * @return The counter, if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT idBlock FROM IdBlock idBlock WHERE idBlock.name = :name")
+    Optional<IdBlock> findForUpdate(@Param("name") String name);
+
+    /**
+     * Creates a counter starting at 1 unless it already exists
+     *
+     * @param name The name of the counter
+     * @return The number of rows inserted, 0 or 1
+     */
+    @Modifying
+    @Query(value = "INSERT INTO id_blocks (name, next_id) SELECT :name, 1 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM id_blocks WHERE name = :name)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+}
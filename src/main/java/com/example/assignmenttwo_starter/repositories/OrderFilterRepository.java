@@ -0,0 +1,38 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderFilter;
+
+import java.util.List;
+
+/**
+ * Order queries built from only the conditions of an {@link OrderFilter} that are set,
+ * so the database sees a plain conjunction it can answer from the indexes on the orders table
+ */
+public interface OrderFilterRepository {
+    /**
+     * Gets the orders matching a filter after an id in id order (keyset pagination)
+     *
+     * @param filter  The conditions the orders must meet
+     * @param afterId Only return orders with a greater id
+     * @param limit   The maximum number of orders to return
+     * @return The orders in ascending id order
+     */
+    List<Order> findByFilterAfter(OrderFilter filter, int afterId, int limit);
+
+    /**
+     * Gets the orders matching a filter before an id in descending id order (keyset pagination)
+     *
+     * @param filter   The conditions the orders must meet
+     * @param beforeId Only return orders with a smaller id
+     * @param limit    The maximum number of orders to return
+     * @return The orders in descending id order
+     */
+    List<Order> findByFilterBefore(OrderFilter filter, int beforeId, int limit);
+
+    /**
+     * @param filter The conditions the orders must meet
+     * @return The number of orders matching the filter
+     */
+    long countByFilter(OrderFilter filter);
+}
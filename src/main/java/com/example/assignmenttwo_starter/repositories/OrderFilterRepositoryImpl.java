@@ -0,0 +1,84 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class OrderFilterRepositoryImpl implements OrderFilterRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findByFilterAfter(OrderFilter filter, int afterId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = builder.createQuery(Order.class);
+        Root<Order> order = query.from(Order.class);
+
+        List<Predicate> predicates = getPredicates(builder, order, filter);
+        predicates.add(builder.greaterThan(order.get("id"), afterId));
+        query.where(predicates.toArray(Predicate[]::new)).orderBy(builder.asc(order.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Order> findByFilterBefore(OrderFilter filter, int beforeId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Order> query = builder.createQuery(Order.class);
+        Root<Order> order = query.from(Order.class);
+
+        List<Predicate> predicates = getPredicates(builder, order, filter);
+        predicates.add(builder.lessThan(order.get("id"), beforeId));
+        query.where(predicates.toArray(Predicate[]::new)).orderBy(builder.desc(order.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countByFilter(OrderFilter filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Order> order = query.from(Order.class);
+
+        query.select(builder.count(order)).where(getPredicates(builder, order, filter).toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * @return A predicate for each condition of the filter that is set.
+     * The status and customer are compared on the foreign key columns, without joining.
+     */
+    private static List<Predicate> getPredicates(CriteriaBuilder builder, Root<Order> order, OrderFilter filter) {
+        var predicates = new ArrayList<Predicate>();
+        if (filter.orderStatusIds() != null) {
+            predicates.add(order.get("orderStatus").get("id").in(filter.orderStatusIds()));
+        }
+        if (filter.from() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(order.<Date>get("orderDate"), filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(builder.lessThan(order.<Date>get("orderDate"), filter.to()));
+        }
+        if (filter.customerId() != null) {
+            predicates.add(builder.equal(order.get("customer").get("id"), filter.customerId()));
+        }
+        if (filter.minTotal() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(order.<BigDecimal>get("total"), filter.minTotal()));
+        }
+        if (filter.maxTotal() != null) {
+            predicates.add(builder.lessThanOrEqualTo(order.<BigDecimal>get("total"), filter.maxTotal()));
+        }
+        return predicates;
+    }
+}
@@ -1,11 +1,119 @@
 package com.example.assignmenttwo_starter.repositories;
 
 import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Integer> {
-}
+public interface OrderRepository extends JpaRepository<Order, Integer>, OrderFilterRepository {
+    /**
+     * Reads the versions of an order and the columns of its items, for conditional requests that do not need the whole order
+     *
+     * @param id The ID of the order
+     * @return One row per item, or one row without an item if the order has none. Empty if the order does not exist.
+     */
+    @Query("SELECT new com.example.assignmenttwo_starter.model.OrderItemVersion(o.version, o.id, o.version, item.id, item.quantity, item.price, item.product.id) " +
+            "FROM Order o LEFT JOIN o.orderItems item WHERE o.id = :id ORDER BY item.id")
+    List<OrderItemVersion> findOrderItemVersionsById(@Param("id") Integer id);
+
+    @EntityGraph(Order.GRAPH_ITEMS)
+    Optional<Order> findWithItemsById(Integer id);
+
+    @EntityGraph(Order.GRAPH_INVOICE)
+    Optional<Order> findWithInvoiceDataById(Integer id);
+
+    @EntityGraph(Order.GRAPH_ITEMS)
+    List<Order> findAllWithItemsByOrderById();
+
+    /**
+     * Gets orders by id with their items loaded in the same query
+     *
+     * @param ids The ids of the orders
+     * @return The orders found, in no particular order
+     */
+    @EntityGraph(Order.GRAPH_ITEMS)
+    List<Order> findAllWithItemsByIdIn(Collection<Integer> ids);
+
+    /**
+     * Gets the orders in an id range with their items loaded in the same query
+     *
+     * @param fromId The first id of the range (inclusive)
+     * @param toId   The last id of the range (inclusive)
+     * @return The orders in the range, in no particular order
+     */
+    @EntityGraph(Order.GRAPH_ITEMS)
+    List<Order> findAllWithItemsByIdBetween(Integer fromId, Integer toId);
+
+    @Query("SELECT COALESCE(MIN(o.id), 0) FROM Order o")
+    int getMinId();
 
+    @Query("SELECT COALESCE(MAX(o.id), 0) FROM Order o")
+    int getMaxId();
+
+    @EntityGraph(Order.GRAPH_ITEMS)
+    List<Order> findAllWithItemsByCustomerIdOrderById(Integer customerId);
+
+    /**
+     * Gets the ids of the orders placed in a date range, optionally for a single customer
+     *
+     * @param customerId The ID of the customer, or null for all customers
+     * @param from       The start of the date range (inclusive)
+     * @param to         The end of the date range (exclusive)
+     * @return The order ids in ascending order
+     */
+    @Query("SELECT o.id FROM Order o WHERE (:customerId IS NULL OR o.customer.id = :customerId) AND o.orderDate >= :from AND o.orderDate < :to ORDER BY o.id")
+    List<Integer> findIdsByCustomerIdAndOrderDateRange(@Param("customerId") Integer customerId, @Param("from") Date from, @Param("to") Date to);
+
+    /**
+     * Gets the ids of the orders that have one of the given statuses
+     *
+     * @param orderStatusIds The ids of the order statuses
+     * @return The order ids in ascending order
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.orderStatus.id IN :orderStatusIds ORDER BY o.id")
+    List<Integer> findIdsByOrderStatusIdIn(@Param("orderStatusIds") Collection<Integer> orderStatusIds);
+
+    /**
+     * Gets the next page of order ids of a customer after a given order id (keyset pagination)
+     *
+     * @param customerId The ID of the customer
+     * @param afterId    Only return ids greater than this id
+     * @param pageable   The page size (the page number should always be 0)
+     * @return The order ids in ascending order
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.customer.id = :customerId AND o.id > :afterId ORDER BY o.id")
+    List<Integer> findIdsByCustomerIdAfter(@Param("customerId") Integer customerId, @Param("afterId") Integer afterId, Pageable pageable);
+
+    /**
+     * Gets orders together with everything printed on their invoice that is not in the catalog snapshot (status, customer and items)
+     * in a single query, so the invoices can be rendered without further lazy loading
+     *
+     * @param ids The ids of the orders
+     * @return The orders found, in no particular order
+     */
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.orderStatus LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids")
+    List<Order> findAllWithInvoiceDataByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Streams all orders in id order from a database cursor. Must be consumed inside a (read only) transaction.
+     *
+     * @return The stream of orders, which must be closed
+     */
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Order> streamAllByOrderById();
+}
@@ -0,0 +1,9 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderStatusRepository extends JpaRepository<OrderStatus, Integer> {
+}
@@ -0,0 +1,54 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.ProductRating;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProductRatingRepository extends JpaRepository<ProductRating, Integer> {
+    /**
+     * Gets the rating totals of a product and locks their row until the end of the transaction, so concurrent reviews are serialized
+     *
+     * @param productId The ID of the product
+     * @return The totals, if the product has had reviews
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rating FROM ProductRating rating WHERE rating.productId = :productId")
+    Optional<ProductRating> findForUpdate(@Param("productId") Integer productId);
+
+    /**
+     * Creates all-zero rating totals for a product unless it already has them
+     *
+     * @param productId The ID of the product
+     * @return The number of rows inserted, 0 or 1
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_ratings (product_id, review_count, rating_sum, " +
+            "rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count) " +
+            "SELECT :productId, 0, 0, 0, 0, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM product_ratings WHERE product_id = :productId)", nativeQuery = true)
+    int insertIfAbsent(@Param("productId") Integer productId);
+
+    @Modifying
+    @Query("DELETE FROM ProductRating")
+    void deleteAllInBulk();
+
+    /**
+     * Recomputes the totals of every product with reviews from the reviews table, in one statement
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_ratings (product_id, review_count, rating_sum, " +
+            "rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count) " +
+            "SELECT product_id, COUNT(*), SUM(rating), " +
+            "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) " +
+            "FROM reviews WHERE product_id IS NOT NULL AND rating BETWEEN 1 AND 5 GROUP BY product_id", nativeQuery = true)
+    int insertFromReviews();
+}
@@ -0,0 +1,35 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.Product;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Integer> {
+    /**
+     * Gets the distinct image file names referenced by products
+     *
+     * @return The image file names, without nulls
+     */
+    @Query("SELECT DISTINCT product.image FROM Product product WHERE product.image IS NOT NULL")
+    List<String> findDistinctImages();
+
+    @Query("SELECT product FROM Product product LEFT JOIN FETCH product.category")
+    List<Product> findAllWithCategory();
+
+    @Query("SELECT product FROM Product product LEFT JOIN FETCH product.category WHERE product.id = :id")
+    Optional<Product> findWithCategoryById(@Param("id") Integer id);
+
+    /**
+     * Gets the greatest id in use, which the id allocator never hands out ids at or below
+     *
+     * @return The greatest id, or 0 if there are no records
+     */
+    @Query("SELECT COALESCE(MAX(product.id), 0) FROM Product product")
+    int getMaxId();
+}
@@ -0,0 +1,39 @@
+package com.example.assignmenttwo_starter.repositories;
+
+import com.example.assignmenttwo_starter.model.ProductReview;
+import com.example.assignmenttwo_starter.model.Review;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Integer> {
+    /**
+     * Gets the greatest id in use, which the id allocator never hands out ids at or below
+     *
+     * @return The greatest id, or 0 if there are no records
+     */
+    @Query("SELECT COALESCE(MAX(review.id), 0) FROM Review review")
+    int getMaxId();
+
+    @Query("SELECT new com.example.assignmenttwo_starter.model.ProductReview(review.id, review.customer.id, review.rating) FROM Review review " +
+            "WHERE review.product.id = :productId AND review.id > :afterId ORDER BY review.id ASC")
+    Slice<ProductReview> findFeedAfter(@Param("productId") Integer productId, @Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.assignmenttwo_starter.model.ProductReview(review.id, review.customer.id, review.rating) FROM Review review " +
+            "WHERE review.product.id = :productId AND review.id < :beforeId ORDER BY review.id DESC")
+    Slice<ProductReview> findFeedBefore(@Param("productId") Integer productId, @Param("beforeId") Integer beforeId, Pageable pageable);
+
+    @Query("SELECT new com.example.assignmenttwo_starter.model.ProductReview(review.id, review.customer.id, review.rating, review.comment) FROM Review review " +
+            "WHERE review.product.id = :productId AND review.id > :afterId ORDER BY review.id ASC")
+    Slice<ProductReview> findFeedWithCommentsAfter(@Param("productId") Integer productId, @Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT new com.example.assignmenttwo_starter.model.ProductReview(review.id, review.customer.id, review.rating, review.comment) FROM Review review " +
+            "WHERE review.product.id = :productId AND review.id < :beforeId ORDER BY review.id DESC")
+    Slice<ProductReview> findFeedWithCommentsBefore(@Param("productId") Integer productId, @Param("beforeId") Integer beforeId, Pageable pageable);
+
+    long countByProductId(Integer productId);
+}
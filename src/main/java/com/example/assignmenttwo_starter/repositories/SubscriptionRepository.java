@@ -1,20 +1,35 @@
 package com.example.assignmenttwo_starter.repositories;
 
 import com.example.assignmenttwo_starter.model.Subscription;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface SubscriptionRepository extends JpaRepository<Subscription, Integer> {
     /**
-     * Simple query to get the next free id in the database
-     * For example, if the database contains 1, 2, 5, 6, 7, 8, 9, 10
-     * then the next free id is 11
+     * Gets the greatest id in use, which the id allocator never hands out ids at or below
      *
-     * @return The next free id (Max + 1)
+     * @return The greatest id, or 0 if there are no records
      */
-    @Query("SELECT MAX(subscription.id) + 1 FROM Subscription subscription")
-    public int getNextFreeId();
-}
+    @Query("SELECT COALESCE(MAX(subscription.id), 0) FROM Subscription subscription")
+    int getMaxId();
+
+    /**
+     * Reads only the version column, for conditional requests that do not need the whole subscription
+     */
+    @Query("SELECT subscription.version FROM Subscription subscription WHERE subscription.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    Page<Subscription> findAllByNameContainingIgnoreCase(String name, Pageable pageable);
 
+    Slice<Subscription> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    Slice<Subscription> findByIdLessThanOrderByIdDesc(Integer id, Pageable pageable);
+}
@@ -0,0 +1,59 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.CacheRegionStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reports the hit and miss counts of the Hibernate second-level cache per region, to size the regions in ehcache.xml
+ */
+@Service
+public class CacheStatisticsService {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Gets the statistics of every region, entity and query regions alike
+     *
+     * @return The statistics, ordered by region name
+     */
+    public List<CacheRegionStatistics> getRegionStatistics() {
+        Statistics statistics = getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    var regionStatistics = statistics.getCacheRegionStatistics(region);
+                    if (regionStatistics == null) {
+                        return null;
+                    }
+                    long hits = regionStatistics.getHitCount();
+                    long misses = regionStatistics.getMissCount();
+                    double hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+                    long elementCountInMemory = regionStatistics.getElementCountInMemory();
+                    if (elementCountInMemory == org.hibernate.stat.CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN) {
+                        elementCountInMemory = -1;
+                    }
+                    return new CacheRegionStatistics(region, hits, misses, regionStatistics.getPutCount(), elementCountInMemory, hitRatio);
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Resets all counters, for example before measuring a load test
+     */
+    public void clearStatistics() {
+        getStatistics().clear();
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
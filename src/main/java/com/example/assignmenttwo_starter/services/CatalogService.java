@@ -0,0 +1,109 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.CatalogChangedEvent;
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
+import com.example.assignmenttwo_starter.repositories.CategoryRepository;
+import com.example.assignmenttwo_starter.repositories.OrderStatusRepository;
+import com.example.assignmenttwo_starter.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Keeps the installed {@link CatalogSnapshot} up to date.
+ * The snapshot is rebuilt at startup, after every committed transaction that changed a category, product or order status through JPA
+ * (once per transaction, however many entities it changed), and periodically to pick up changes made straight in the database.
+ */
+@Service
+public class CatalogService {
+    private static final Object REFRESH_SCHEDULED_KEY = new Object();
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderStatusRepository orderStatusRepository;
+
+    private volatile boolean loaded;
+
+    /**
+     * Gets the current snapshot, loading it first if it has not been loaded yet
+     *
+     * @return The snapshot
+     */
+    public CatalogSnapshot getSnapshot() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    refresh();
+                }
+            }
+        }
+        return CatalogSnapshot.current();
+    }
+
+    /**
+     * Builds a new snapshot from the database and installs it. Readers keep using the previous snapshot until it is installed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${catalog.refresh-interval-ms:300000}", fixedDelayString = "${catalog.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        var snapshot = new CatalogSnapshot(
+                categoryRepository.findAll().stream()
+                        .map(category -> new CatalogSnapshot.CategoryEntry(category.getId(), category.getName(), List.of()))
+                        .toList(),
+                productRepository.findAllWithCategory().stream()
+                        .map(CatalogSnapshot.ProductEntry::of)
+                        .toList(),
+                orderStatusRepository.findAll().stream()
+                        .map(orderStatus -> new CatalogSnapshot.OrderStatusEntry(orderStatus.getId(), orderStatus.getName()))
+                        .toList());
+        CatalogSnapshot.install(snapshot);
+        loaded = true;
+    }
+
+    /**
+     * Schedules a refresh for when the transaction that made the change commits, unless the transaction already has one.
+     * A change made outside a transaction refreshes straight away.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(REFRESH_SCHEDULED_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REFRESH_SCHEDULED_KEY, Boolean.TRUE);
+        // Unbound while a REQUIRES_NEW transaction runs inside this one, so that transaction schedules its own refresh
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(REFRESH_SCHEDULED_KEY);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(REFRESH_SCHEDULED_KEY, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REFRESH_SCHEDULED_KEY);
+            }
+        });
+    }
+}
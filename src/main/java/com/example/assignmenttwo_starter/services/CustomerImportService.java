@@ -0,0 +1,217 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.CustomerImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Imports customers in bulk from a CSV or NDJSON stream.
+ * Rows are read as they arrive and handled in batches of {@code customer.import.batch-size}:
+ * each batch is validated in parallel against the {@link Customer} constraints, then its valid rows are inserted
+ * in one transaction with JDBC batching, after which the persistence context is cleared.
+ * Rejected rows are reported by row number and never stop the rest of the import,
+ * except for a row so malformed that the next row cannot be found.
+ */
+@Service
+public class CustomerImportService {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private Validator validator;
+
+    private final int batchSize;
+    private final int maxErrors;
+    private final TransactionTemplate batchTransaction;
+    private final ObjectReader csvReader;
+    private final ObjectReader ndjsonReader;
+
+    /**
+     * @param batchSize The number of rows validated and inserted together
+     * @param maxErrors The number of rejected rows listed in the result. Rejected rows beyond this are only counted.
+     */
+    public CustomerImportService(@Value("${customer.import.batch-size:500}") int batchSize,
+                                 @Value("${customer.import.max-errors:1000}") int maxErrors,
+                                 PlatformTransactionManager transactionManager,
+                                 Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+
+        CsvMapper csvMapper = new CsvMapper();
+        csvMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        csvMapper.enable(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        csvMapper.enable(CsvParser.Feature.TRIM_SPACES);
+        this.csvReader = csvMapper.readerFor(Customer.class).with(CsvSchema.emptySchema().withHeader());
+        this.ndjsonReader = objectMapperBuilder.build().readerFor(Customer.class);
+    }
+
+    /**
+     * Imports customers from CSV with a header row naming the customer properties (firstName, lastName, email, telephone, ...)
+     *
+     * @param inputStream The CSV
+     * @return The number of imported and rejected rows, with the reasons rows were rejected
+     */
+    public CustomerImportResult importCsv(InputStream inputStream) throws IOException {
+        try (MappingIterator<Customer> rows = csvReader.readValues(inputStream)) {
+            return importRows(rows);
+        }
+    }
+
+    /**
+     * Imports customers from NDJSON, one customer object per line
+     *
+     * @param inputStream The NDJSON
+     * @return The number of imported and rejected rows, with the reasons rows were rejected
+     */
+    public CustomerImportResult importNdjson(InputStream inputStream) throws IOException {
+        try (MappingIterator<Customer> rows = ndjsonReader.readValues(inputStream)) {
+            return importRows(rows);
+        }
+    }
+
+    private CustomerImportResult importRows(MappingIterator<Customer> rows) {
+        var progress = new Progress();
+        var batch = new ArrayList<Row>(batchSize);
+        long rowNumber = 0;
+        while (true) {
+            rowNumber++;
+            try {
+                if (!rows.hasNextValue()) {
+                    break;
+                }
+                batch.add(new Row(rowNumber, rows.nextValue()));
+            } catch (JsonMappingException e) {
+                // A value that does not fit a customer property, the iterator skips to the next row
+                progress.reject(rowNumber, e.getOriginalMessage());
+                continue;
+            } catch (IOException e) {
+                String message = e instanceof JsonProcessingException jsonException ? jsonException.getOriginalMessage() : e.getMessage();
+                progress.reject(rowNumber, "Unreadable row, import stopped: " + message);
+                break;
+            }
+
+            if (batch.size() == batchSize) {
+                importBatch(batch, progress);
+                batch.clear();
+            }
+        }
+        importBatch(batch, progress);
+        return progress.toResult();
+    }
+
+    private void importBatch(List<Row> batch, Progress progress) {
+        List<String> problems = batch.parallelStream().map(row -> getProblems(row.customer())).toList();
+
+        var validRows = new ArrayList<Row>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (problems.get(i) == null) {
+                validRows.add(batch.get(i));
+            } else {
+                progress.reject(batch.get(i).number(), problems.get(i));
+            }
+        }
+        if (validRows.isEmpty()) {
+            return;
+        }
+
+        for (Row row : validRows) {
+            row.customer().setId(customerService.allocateId());
+        }
+        try {
+            insert(validRows);
+            progress.imported += validRows.size();
+        } catch (PersistenceException | DataAccessException e) {
+            // One row breaking a database constraint (such as a duplicate email) rolls back the whole batch,
+            // so insert the rows one at a time to find it
+            for (Row row : validRows) {
+                try {
+                    insert(List.of(row));
+                    progress.imported++;
+                } catch (PersistenceException | DataAccessException rowException) {
+                    progress.reject(row.number(), getFirstLine(NestedExceptionUtils.getMostSpecificCause(rowException).getMessage()));
+                }
+            }
+        }
+    }
+
+    private void insert(List<Row> rows) {
+        batchTransaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (Row row : rows) {
+                entityManager.persist(row.customer());
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    /**
+     * @return The constraint violations of a customer, or null if it is valid. The id is not checked as it is assigned on insert.
+     */
+    private String getProblems(Customer customer) {
+        String problems = validator.validate(customer).stream()
+                .filter(violation -> !"id".equals(violation.getPropertyPath().toString()))
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+        return problems.isEmpty() ? null : problems;
+    }
+
+    /**
+     * @return The message without the SQL statement the database appends to it
+     */
+    private static String getFirstLine(String message) {
+        int lineEnd = message.indexOf('\n');
+        return lineEnd < 0 ? message : message.substring(0, lineEnd).replaceFirst("; SQL statement:$", "");
+    }
+
+    private record Row(long number, Customer customer) {
+    }
+
+    private class Progress {
+        private long imported;
+        private long failed;
+        private final List<CustomerImportResult.RowError> errors = new ArrayList<>();
+
+        private void reject(long rowNumber, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new CustomerImportResult.RowError(rowNumber, message));
+            }
+        }
+
+        private CustomerImportResult toResult() {
+            errors.sort(Comparator.comparingLong(CustomerImportResult.RowError::row));
+            return new CustomerImportResult(imported, failed, errors, failed > errors.size());
+        }
+    }
+}
@@ -1,22 +1,49 @@
 package com.example.assignmenttwo_starter.services;
 
 import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
 import com.example.assignmenttwo_starter.repositories.CustomerRepository;
+import com.example.assignmenttwo_starter.utilities.IdAllocator;
+import com.example.assignmenttwo_starter.utilities.OrderFingerprintUtility;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerService {
     @Autowired
     private CustomerRepository customerRepository;
+    @Autowired
+    private IdBlockService idBlockService;
+    @Autowired
+    private CatalogService catalogService;
+
+    private IdAllocator idAllocator;
+
+    @PostConstruct
+    public void initIdAllocator() {
+        idAllocator = idBlockService.getAllocator("customers", customerRepository::getMaxId);
+    }
+
+    /**
+     * Allocates an id for a new customer
+     *
+     * @return An id no other customer has or will be given
+     */
+    public int allocateId() {
+        return idAllocator.nextId();
+    }
 
     public Customer createCustomer(Customer customer) {
-        customer.setId(customerRepository.getNextFreeId());
+        customer.setId(idAllocator.nextId());
         return customerRepository.save(customer);
     }
 
@@ -28,8 +55,13 @@ public class CustomerService {
         customerRepository.delete(customer);
     }
 
+    /**
+     * Gets all customers with their orders loaded in the same query
+     *
+     * @return The customers in id order
+     */
     public List<Customer> findAll() {
-        return customerRepository.findAll();
+        return customerRepository.findAllWithOrdersByOrderById();
     }
 
    public List<Customer> findAllByFirstNameEqualsIgnoreCase(String firstname){
@@ -41,10 +73,98 @@ public class CustomerService {
         return customerRepository.findAll(pageRequest);
     }
 
+    /**
+     * Gets the customers after an id in id order, without counting the total (keyset pagination)
+     *
+     * @param afterId  Only return customers with a greater id
+     * @param pageSize The maximum number of customers to return
+     * @return The slice of customers, which knows whether there are more after it
+     */
+    public Slice<Customer> findSliceAfter(Integer afterId, int pageSize) {
+        return customerRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Gets the customers before an id in descending id order, without counting the total (keyset pagination)
+     *
+     * @param beforeId Only return customers with a smaller id
+     * @param pageSize The maximum number of customers to return
+     * @return The slice of customers, which knows whether there are more before it
+     */
+    public Slice<Customer> findSliceBefore(Integer beforeId, int pageSize) {
+        return customerRepository.findByIdLessThanOrderByIdDesc(beforeId, PageRequest.of(0, pageSize));
+    }
+
+    public long count() {
+        return customerRepository.count();
+    }
+
+    /**
+     * Streams all customers in id order from a database cursor. Must be called and consumed inside a transaction.
+     *
+     * @return The stream of customers, which must be closed
+     */
+    public Stream<Customer> streamAll() {
+        return customerRepository.streamAllByOrderById();
+    }
+
     public Optional<Customer> findById(Integer customerId) {
         return customerRepository.findById(customerId);
     }
 
+    /**
+     * Reads what the representation of a customer depends on without loading it, see {@link #getFingerprint(List)}
+     *
+     * @param customerId The ID of the customer
+     * @return The versions of the customer and their orders and the columns of the order items, empty if the customer does not exist
+     */
+    public List<OrderItemVersion> findOrderItemVersionsById(Integer customerId) {
+        return customerRepository.findOrderItemVersionsById(customerId);
+    }
+
+    /**
+     * Gets a fingerprint of the representation of a customer, which changes whenever the customer (including their reviews,
+     * which update its version), one of their orders or order items, or the catalog names of the products change
+     *
+     * @param orderItemVersions The versions read by {@link #findOrderItemVersionsById(Integer)}
+     * @return The fingerprint
+     */
+    public String getFingerprint(List<OrderItemVersion> orderItemVersions) {
+        return OrderFingerprintUtility.getFingerprint(orderItemVersions, catalogService.getSnapshot());
+    }
+
+    /**
+     * @param customer A customer loaded with their orders
+     * @return The same fingerprint as {@link #getFingerprint(List)} gives for the versions read from the database
+     */
+    public String getFingerprint(Customer customer) {
+        return getFingerprint(OrderFingerprintUtility.getOrderItemVersions(customer));
+    }
+
+    /**
+     * Gets a customer with their orders loaded in the same query
+     *
+     * @param customerId The ID of the customer
+     * @return The customer, if found
+     */
+    public Optional<Customer> findWithOrdersById(Integer customerId) {
+        return customerRepository.findWithOrdersById(customerId);
+    }
+
+    /**
+     * Gets the customers with some ids, with their orders loaded in the same query
+     *
+     * @param customerIds The IDs of the customers
+     * @return The customers found, in no particular order
+     */
+    public List<Customer> findAllWithOrdersByIdIn(Collection<Integer> customerIds) {
+        return customerRepository.findAllWithOrdersByIdIn(customerIds);
+    }
+
+    public boolean existsById(Integer customerId) {
+        return customerRepository.existsById(customerId);
+    }
+
     public Customer updateCustomer(Customer customer) {
         return customerRepository.save(customer);
     }
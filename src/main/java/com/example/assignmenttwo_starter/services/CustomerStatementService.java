@@ -0,0 +1,73 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.utilities.CustomerStatementPdfBuilder;
+import com.itextpdf.text.DocumentException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+public class CustomerStatementService {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CatalogService catalogService;
+
+    @Value("${statement.page-size:100}")
+    private int pageSize;
+
+    /**
+     * Writes a statement PDF of every order of a customer.
+     * Orders are loaded a page at a time (keyset on the order id) and the rows are flushed to the stream as they are added,
+     * so memory use does not grow with the size of the order history.
+     * The statement is not rendered on the rendering pool: it is written while it streams to the client, so it would hold
+     * a rendering thread for as long as the download takes, and it is made of text rows only, with no images or QR codes.
+     *
+     * @param customer     The customer to write the statement for
+     * @param outputStream The stream to write the PDF to
+     */
+    public void writeStatementPdf(Customer customer, OutputStream outputStream) throws DocumentException, IOException {
+        new CustomerStatementPdfBuilder(customer, new OrderPageIterator(customer.getId()), catalogService.getSnapshot()).generatePdfReport(outputStream);
+    }
+
+    /**
+     * Iterates over the orders of a customer a page at a time, in order id order
+     */
+    private class OrderPageIterator implements Iterator<List<Order>> {
+        private final Integer customerId;
+        private List<Integer> nextIds;
+
+        private OrderPageIterator(Integer customerId) {
+            this.customerId = customerId;
+            this.nextIds = orderService.findIdsByCustomerIdAfter(customerId, 0, pageSize);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !nextIds.isEmpty();
+        }
+
+        @Override
+        public List<Order> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<Order> orders = new ArrayList<>(orderService.findAllWithInvoiceDataByIdIn(nextIds));
+            orders.sort(Comparator.comparing(Order::getId));
+
+            Integer lastId = nextIds.get(nextIds.size() - 1);
+            nextIds = nextIds.size() < pageSize ? List.of() : orderService.findIdsByCustomerIdAfter(customerId, lastId, pageSize);
+            return orders;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables as NDJSON or XML straight from a database cursor.
+ * Each row is written as soon as it is read and the persistence context is cleared every {@value #CLEAR_EVERY} rows,
+ * so neither the heap nor the time to first byte grows with the size of the table.
+ */
+@Service
+public class ExportService {
+    private static final int CLEAR_EVERY = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private OrderService orderService;
+
+    private final ObjectMapper jsonMapper;
+    private final XmlMapper xmlMapper;
+
+    public ExportService(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.jsonMapper = objectMapperBuilder.build();
+        this.jsonMapper.addMixIn(RepresentationModel.class, WithoutLinks.class);
+        this.xmlMapper = objectMapperBuilder.createXmlMapper(true).build();
+        this.xmlMapper.addMixIn(RepresentationModel.class, WithoutLinks.class);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCustomersNdjson(OutputStream outputStream) throws IOException {
+        try (var customers = customerService.streamAll()) {
+            writeNdjson(customers, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCustomersXml(OutputStream outputStream) throws IOException {
+        try (var customers = customerService.streamAll()) {
+            writeXml(customers, "customers", "customer", outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeOrdersNdjson(OutputStream outputStream) throws IOException {
+        try (var orders = orderService.streamAll()) {
+            writeNdjson(orders, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeOrdersXml(OutputStream outputStream) throws IOException {
+        try (var orders = orderService.streamAll()) {
+            writeXml(orders, "orders", "order", outputStream);
+        }
+    }
+
+    /**
+     * Writes each element as one line of JSON
+     */
+    private <T> void writeNdjson(Stream<T> elements, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = jsonMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            int count = 0;
+            for (Iterator<T> iterator = elements.iterator(); iterator.hasNext(); ) {
+                jsonMapper.writeValue(generator, iterator.next());
+                if (++count % CLEAR_EVERY == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            if (count > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the elements as children of a single root element
+     */
+    private <T> void writeXml(Stream<T> elements, String rootName, String elementName, OutputStream outputStream) throws IOException {
+        try (ToXmlGenerator generator = xmlMapper.getFactory().createGenerator(outputStream)) {
+            ObjectWriter elementWriter = xmlMapper.writer();
+            generator.setNextName(new QName(rootName));
+            generator.writeStartObject();
+            int count = 0;
+            for (Iterator<T> iterator = elements.iterator(); iterator.hasNext(); ) {
+                generator.writeFieldName(elementName);
+                elementWriter.writeValue(generator, iterator.next());
+                if (++count % CLEAR_EVERY == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Leaves the (always empty) HATEOAS links out of exported rows
+     */
+    @JsonIgnoreProperties("links")
+    private abstract static class WithoutLinks {
+    }
+}
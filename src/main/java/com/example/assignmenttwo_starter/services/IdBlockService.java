@@ -0,0 +1,88 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.IdBlock;
+import com.example.assignmenttwo_starter.repositories.IdBlockRepository;
+import com.example.assignmenttwo_starter.utilities.BlockIdAllocator;
+import com.example.assignmenttwo_starter.utilities.IdAllocator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Reserves blocks of ids from counters stored in the id_blocks table
+ */
+@Service
+public class IdBlockService {
+    @Autowired
+    private IdBlockRepository idBlockRepository;
+
+    private final int blockSize;
+    private final TransactionTemplate reservationTransaction;
+    private final Map<String, IdAllocator> allocators = new ConcurrentHashMap<>();
+
+    public IdBlockService(@Value("${id.block-size:50}") int blockSize, PlatformTransactionManager transactionManager) {
+        this.blockSize = blockSize;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Gets the allocator that reserves its blocks from a counter, creating it on first use.
+     * Every caller asking for the same counter shares one allocator, so they never reserve blocks from each other.
+     *
+     * @param name          The name of the counter
+     * @param maxIdSupplier Gets the greatest id in use, or 0 if there is none, see {@link #reserveBlock(String, int, IntSupplier)}
+     * @return The allocator
+     */
+    public IdAllocator getAllocator(String name, IntSupplier maxIdSupplier) {
+        return allocators.computeIfAbsent(name, key -> new BlockIdAllocator(size -> reserveBlock(key, size, maxIdSupplier), blockSize));
+    }
+
+    /**
+     * Reserves a block of ids in its own transaction, so the reservation is committed even if the insert that needed it is rolled back.
+     * The block never starts at or below the greatest id in use, which covers rows inserted without the counter (such as the seed data)
+     * and a counter that was lost or is created for the first time.
+     * A missing counter is created in a transaction of its own before it is locked, so two reservations racing to create it
+     * both end up locking the same row instead of one failing on the key or overwriting the other's block.
+     *
+     * @param name          The name of the counter
+     * @param size          The number of ids to reserve
+     * @param maxIdSupplier Gets the greatest id in use, or 0 if there is none
+     * @return The first id of the block
+     */
+    public int reserveBlock(String name, int size, IntSupplier maxIdSupplier) {
+        Integer start = reservationTransaction.execute(status -> {
+            IdBlock idBlock = lockIdBlock(name);
+            int blockStart = Math.max(idBlock.getNextId(), maxIdSupplier.getAsInt() + 1);
+            idBlock.setNextId(blockStart + size);
+            idBlockRepository.save(idBlock);
+            return blockStart;
+        });
+        return start;
+    }
+
+    /**
+     * @return The counter locked for update, created if it does not exist yet
+     */
+    private IdBlock lockIdBlock(String name) {
+        Optional<IdBlock> idBlock = idBlockRepository.findForUpdate(name);
+        if (idBlock.isPresent()) {
+            return idBlock.get();
+        }
+        try {
+            reservationTransaction.executeWithoutResult(status -> idBlockRepository.insertIfAbsent(name));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent reservation
+        }
+        return idBlockRepository.findForUpdate(name).orElseThrow();
+    }
+}
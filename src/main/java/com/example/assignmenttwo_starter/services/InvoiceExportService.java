@@ -0,0 +1,160 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class InvoiceExportService {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceExportService.class);
+    private static final int ORDER_BATCH_SIZE = 50;
+    private static final LocalDate MIN_ORDER_DATE = LocalDate.of(1970, 1, 1);
+    private static final LocalDate MAX_ORDER_DATE = LocalDate.of(9999, 1, 1);
+    private static final long REJECTED_RENDER_RETRY_MILLIS = 100;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private RenderingService renderingService;
+
+    private final int renderThreads;
+
+    /**
+     * @param renderThreads The number of invoices of one export rendered at once, 0 for one per processor
+     */
+    public InvoiceExportService(@Value("${invoice.export.threads:0}") int renderThreads) {
+        this.renderThreads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Gets the ids of the orders to export, either the given order ids (duplicates removed, order kept)
+     * or the orders placed in a date range, optionally for a single customer
+     *
+     * @param customerId The ID of the customer, or null for all customers
+     * @param from       The first order date to include, or null for no lower bound
+     * @param to         The last order date to include, or null for no upper bound
+     * @param orderIds   The ids of the orders to export, or null to use the other filters
+     * @return The order ids, in the order their invoices will be written
+     */
+    public List<Integer> findOrderIds(Integer customerId, LocalDate from, LocalDate to, List<Integer> orderIds) {
+        if (orderIds != null && !orderIds.isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(orderIds));
+        }
+        return orderService.findIdsByCustomerIdAndOrderDateRange(
+                customerId,
+                toDate(from == null ? MIN_ORDER_DATE : from),
+                toDate(to == null ? MAX_ORDER_DATE : to.plusDays(1)));
+    }
+
+    /**
+     * Writes a ZIP of the invoices of the active (pending or processing) orders among the given ids.
+     * Orders are loaded in batches and their invoices rendered on the rendering pool, while entries are written
+     * to the stream in the order of the ids as soon as they are ready. The renders share the pool's admission control
+     * with the download endpoints: when the pool rejects a render the export waits for its own oldest render, or briefly
+     * if it has none running, and tries again, so a large export slows down instead of failing or overloading the pool.
+     * Missing and inactive orders are skipped,
+     * and an invoice that fails to render is replaced by a text entry saying so (the cause is logged).
+     * Invoices rendered for the export are not kept in the invoice cache or store, which serve the download endpoint.
+     *
+     * @param orderIds     The ids of the orders, in the order their invoices should be written
+     * @param outputStream The stream to write the ZIP to
+     */
+    public void writeInvoiceZip(List<Integer> orderIds, OutputStream outputStream) throws IOException {
+        int maxPendingRenders = renderThreads;
+        Deque<PendingInvoice> pendingInvoices = new ArrayDeque<>();
+
+        try (var zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (int start = 0; start < orderIds.size(); start += ORDER_BATCH_SIZE) {
+                List<Integer> batchIds = orderIds.subList(start, Math.min(start + ORDER_BATCH_SIZE, orderIds.size()));
+                Map<Integer, Order> ordersById = orderService.findAllWithInvoiceDataByIdIn(batchIds).stream()
+                        .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+                for (Integer orderId : batchIds) {
+                    Order order = ordersById.get(orderId);
+                    if (order == null || !order.getOrderStatus().isPendingOrProcessing()) {
+                        continue;
+                    }
+                    if (pendingInvoices.size() >= maxPendingRenders) {
+                        writeEntry(zipOutputStream, pendingInvoices.removeFirst());
+                    }
+                    CompletableFuture<byte[]> pdf = renderingService.submit(() -> invoiceService.getInvoicePdfForExport(order));
+                    while (isRejected(pdf)) {
+                        if (pendingInvoices.isEmpty()) {
+                            waitForRenderingPool();
+                        } else {
+                            writeEntry(zipOutputStream, pendingInvoices.removeFirst());
+                        }
+                        pdf = renderingService.submit(() -> invoiceService.getInvoicePdfForExport(order));
+                    }
+                    pendingInvoices.addLast(new PendingInvoice(orderId, pdf));
+                }
+            }
+            while (!pendingInvoices.isEmpty()) {
+                writeEntry(zipOutputStream, pendingInvoices.removeFirst());
+            }
+        } finally {
+            pendingInvoices.forEach(pendingInvoice -> pendingInvoice.pdf().cancel(true));
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream zipOutputStream, PendingInvoice pendingInvoice) throws IOException {
+        byte[] content;
+        String fileName;
+        try {
+            content = pendingInvoice.pdf().get();
+            fileName = "order-" + pendingInvoice.orderId() + ".pdf";
+        } catch (ExecutionException e) {
+            logger.warn("Failed to render invoice for order " + pendingInvoice.orderId() + " during export", e.getCause());
+            content = "Failed to generate PDF".getBytes(StandardCharsets.UTF_8);
+            fileName = "order-" + pendingInvoice.orderId() + "-error.txt";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering invoices", e);
+        }
+
+        zipOutputStream.putNextEntry(new ZipEntry(fileName));
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+        zipOutputStream.flush();
+    }
+
+    private static boolean isRejected(CompletableFuture<byte[]> pdf) {
+        return pdf.isCompletedExceptionally() && pdf.handle((result, e) -> e instanceof RejectedExecutionException).join();
+    }
+
+    private static void waitForRenderingPool() throws IOException {
+        try {
+            Thread.sleep(REJECTED_RENDER_RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering invoices", e);
+        }
+    }
+
+    private static Date toDate(LocalDate localDate) {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private record PendingInvoice(Integer orderId, Future<byte[]> pdf) {
+    }
+}
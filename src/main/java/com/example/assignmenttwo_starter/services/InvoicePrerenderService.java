@@ -0,0 +1,134 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Renders the invoices of pending and processing orders into the invoice store ahead of time,
+ * so the download endpoint can mostly serve stored bytes.
+ * Orders are picked up from {@link OrderChangedEvent}s and from a periodic scan of the active orders,
+ * which also catches orders changed outside JPA. Invoices of orders that are no longer active are evicted.
+ */
+@Service
+public class InvoicePrerenderService {
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePrerenderService.class);
+    private static final int ORDER_BATCH_SIZE = 50;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Value("${invoice.prerender.enabled:true}")
+    private boolean enabled;
+
+    private final ExecutorService renderExecutor;
+    private final Semaphore renderPermits;
+    private final Set<Integer> rendersInProgress = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param renderThreads The number of threads rendering invoices
+     * @param queueCapacity The number of renders that may wait for a thread. When all threads are busy and the queue is full,
+     *                      the periodic scan waits for a render to finish and order change events are left to the next scan.
+     */
+    public InvoicePrerenderService(@Value("${invoice.prerender.threads:2}") int renderThreads,
+                                   @Value("${invoice.prerender.queue-capacity:100}") int queueCapacity) {
+        this.renderExecutor = Executors.newFixedThreadPool(renderThreads);
+        this.renderPermits = new Semaphore(renderThreads + queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * Renders the invoices of active orders that are not stored yet and evicts the stored invoices of orders that are no longer active
+     */
+    @Scheduled(initialDelayString = "${invoice.prerender.initial-delay-ms:5000}", fixedDelayString = "${invoice.prerender.scan-interval-ms:60000}")
+    public void scanActiveOrders() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        List<Integer> activeOrderIds = orderService.findActiveOrderIds();
+        for (int start = 0; start < activeOrderIds.size(); start += ORDER_BATCH_SIZE) {
+            List<Integer> batchIds = activeOrderIds.subList(start, Math.min(start + ORDER_BATCH_SIZE, activeOrderIds.size()));
+            for (Order order : orderService.findAllWithInvoiceDataByIdIn(batchIds)) {
+                if (!invoiceService.isInvoicePdfStored(order)) {
+                    renderPermits.acquire();
+                    submit(order);
+                }
+            }
+        }
+
+        Set<Integer> inactiveOrderIds = new HashSet<>(invoiceService.getStoredInvoiceOrderIds());
+        inactiveOrderIds.removeAll(activeOrderIds);
+        for (Integer orderId : inactiveOrderIds) {
+            invoiceService.evictInvoice(orderId);
+        }
+    }
+
+    /**
+     * Renders the invoice of an order that became active, or evicts the invoice of an order that is no longer active,
+     * once the change is committed
+     *
+     * @param event The order change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) throws IOException {
+        if (!event.active()) {
+            invoiceService.evictInvoice(event.orderId());
+            return;
+        }
+        if (!enabled || !renderPermits.tryAcquire()) {
+            return;
+        }
+
+        List<Order> orders = orderService.findAllWithInvoiceDataByIdIn(List.of(event.orderId()));
+        if (orders.isEmpty()) {
+            renderPermits.release();
+            return;
+        }
+        submit(orders.get(0));
+    }
+
+    /**
+     * Submits a render for an order, for which a permit must already have been acquired
+     *
+     * @param order The order to render the invoice for
+     */
+    private void submit(Order order) {
+        if (!rendersInProgress.add(order.getId())) {
+            renderPermits.release();
+            return;
+        }
+        renderExecutor.execute(() -> {
+            try {
+                invoiceService.storeInvoicePdf(order);
+            } catch (Exception e) {
+                logger.warn("Failed to pre-render invoice for order " + order.getId(), e);
+            } finally {
+                rendersInProgress.remove(order.getId());
+                renderPermits.release();
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.repositories.ProductRepository;
+import com.example.assignmenttwo_starter.utilities.ByteArrayLruCache;
+import com.example.assignmenttwo_starter.utilities.InvoiceStore;
+import com.example.assignmenttwo_starter.utilities.OrderFingerprintUtility;
+import com.example.assignmenttwo_starter.utilities.OrderPdfBuilder;
+import com.example.assignmenttwo_starter.utilities.ProductImageRegistry;
+import com.itextpdf.text.DocumentException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+@Service
+public class InvoiceService {
+    public static final String PRODUCTS_DIRECTORY_PATH = "static/assets/images/thumbs/";
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CatalogService catalogService;
+
+    private final ByteArrayLruCache<Integer> invoiceCache;
+    private final ProductImageRegistry productImageRegistry = new ProductImageRegistry(PRODUCTS_DIRECTORY_PATH);
+
+    @Value("${invoice.images.warm-up:false}")
+    private boolean warmUpProductImages;
+
+    private final InvoiceStore invoiceStore;
+
+    public InvoiceService(@Value("${invoice.cache.max-bytes:16777216}") long invoiceCacheMaxBytes,
+                          @Value("${invoice.store.directory:${java.io.tmpdir}/pettopia-invoices}") String invoiceStoreDirectory) throws IOException {
+        this.invoiceCache = new ByteArrayLruCache<>(invoiceCacheMaxBytes);
+        this.invoiceStore = new InvoiceStore(Path.of(invoiceStoreDirectory));
+    }
+
+    /**
+     * Preloads every product image referenced by the products table once the application is ready,
+     * if enabled with invoice.images.warm-up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpProductImages() throws DocumentException, IOException {
+        if (warmUpProductImages) {
+            productImageRegistry.preload(productRepository.findDistinctImages());
+        }
+    }
+
+    /**
+     * Gets the fingerprint of the invoice data of an order
+     *
+     * @param order The order to fingerprint
+     * @return The fingerprint, which changes whenever the order, its status, its items or their products change
+     */
+    public String getFingerprint(Order order) {
+        return OrderFingerprintUtility.getFingerprint(order, catalogService.getSnapshot());
+    }
+
+    /**
+     * Gets the invoice PDF of an order from the memory cache or the invoice store,
+     * rendering (and storing) it only if neither has a copy for the current fingerprint
+     *
+     * @param order       The order to get the invoice for
+     * @param fingerprint The current fingerprint of the order (see {@link #getFingerprint(Order)})
+     * @return The bytes of the invoice PDF
+     */
+    public byte[] getInvoicePdf(Order order, String fingerprint) throws DocumentException, IOException {
+        byte[] content = findInvoicePdf(order, fingerprint);
+        if (content == null) {
+            content = renderInvoicePdf(order);
+            invoiceStore.write(order.getId(), fingerprint, content);
+            invoiceCache.put(order.getId(), fingerprint, content);
+        }
+        return content;
+    }
+
+    /**
+     * Gets the invoice PDF of an order from the memory cache or the invoice store, without rendering it
+     *
+     * @param order       The order to get the invoice for
+     * @param fingerprint The current fingerprint of the order (see {@link #getFingerprint(Order)})
+     * @return The bytes of the invoice PDF, or null if it has to be rendered
+     */
+    public byte[] findInvoicePdf(Order order, String fingerprint) throws IOException {
+        byte[] content = invoiceCache.get(order.getId(), fingerprint);
+        if (content == null) {
+            content = invoiceStore.read(order.getId(), fingerprint);
+            if (content != null) {
+                invoiceCache.put(order.getId(), fingerprint, content);
+            }
+        }
+        return content;
+    }
+
+    public byte[] getInvoicePdf(Order order) throws DocumentException, IOException {
+        return getInvoicePdf(order, getFingerprint(order));
+    }
+
+    /**
+     * Gets the invoice PDF of an order for a bulk export. A cached or stored copy is reused, but an invoice rendered here
+     * is not kept, so exporting many old orders neither evicts hot invoices from the memory cache nor fills the store.
+     *
+     * @param order The order to get the invoice for
+     * @return The bytes of the invoice PDF
+     */
+    public byte[] getInvoicePdfForExport(Order order) throws DocumentException, IOException {
+        String fingerprint = getFingerprint(order);
+        byte[] content = invoiceCache.get(order.getId(), fingerprint);
+        if (content == null) {
+            content = invoiceStore.read(order.getId(), fingerprint);
+        }
+        return content != null ? content : renderInvoicePdf(order);
+    }
+
+    /**
+     * Renders the invoice of an order into the invoice store, unless it is already stored for the current fingerprint
+     *
+     * @param order The order to render the invoice for
+     * @return true if the invoice was rendered, false if it was already stored
+     */
+    public boolean storeInvoicePdf(Order order) throws DocumentException, IOException {
+        String fingerprint = getFingerprint(order);
+        if (invoiceStore.contains(order.getId(), fingerprint)) {
+            return false;
+        }
+        invoiceStore.write(order.getId(), fingerprint, renderInvoicePdf(order));
+        return true;
+    }
+
+    public boolean isInvoicePdfStored(Order order) {
+        return invoiceStore.contains(order.getId(), getFingerprint(order));
+    }
+
+    public Set<Integer> getStoredInvoiceOrderIds() throws IOException {
+        return invoiceStore.getOrderIds();
+    }
+
+    /**
+     * Removes the cached and stored invoice of an order
+     *
+     * @param orderId The ID of the order
+     */
+    public void evictInvoice(Integer orderId) throws IOException {
+        invoiceCache.remove(orderId);
+        invoiceStore.delete(orderId);
+    }
+
+    public byte[] renderInvoicePdf(Order order) throws DocumentException, IOException {
+        var outputStream = new ByteArrayOutputStream();
+        new OrderPdfBuilder(order, productImageRegistry, catalogService.getSnapshot()).generatePdfReport(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public ProductImageRegistry getProductImageRegistry() {
+        return productImageRegistry;
+    }
+}
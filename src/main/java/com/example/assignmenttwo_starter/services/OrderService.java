@@ -1,32 +1,204 @@
 package com.example.assignmenttwo_starter.services;
 
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
 import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderFilter;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
+import com.example.assignmenttwo_starter.model.OrderStatus;
 import com.example.assignmenttwo_starter.repositories.OrderRepository;
+import com.example.assignmenttwo_starter.utilities.OrderFingerprintUtility;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
+    @Autowired
+    private CatalogService catalogService;
 
+    /**
+     * Gets all orders with their items loaded in the same query
+     *
+     * @return The orders in id order
+     */
     public List<Order> findAll() {
-        return orderRepository.findAll();
+        return orderRepository.findAllWithItemsByOrderById();
+    }
+
+    /**
+     * Gets the orders of a customer with their items loaded in the same query
+     *
+     * @param customerId The ID of the customer
+     * @return The orders in id order
+     */
+    public List<Order> findAllByCustomerId(Integer customerId) {
+        return orderRepository.findAllWithItemsByCustomerIdOrderById(customerId);
     }
 
     public Page<Order> findAll(PageRequest pageRequest) {
         return orderRepository.findAll(pageRequest);
     }
 
+    /**
+     * Gets the orders matching a filter after an id in id order, without counting the total (keyset pagination)
+     *
+     * @param filter   The conditions the orders must meet
+     * @param afterId  Only return orders with a greater id
+     * @param pageSize The maximum number of orders to return
+     * @return The slice of orders, which knows whether there are more after it
+     */
+    public Slice<Order> findSliceAfter(OrderFilter filter, int afterId, int pageSize) {
+        return toSlice(orderRepository.findByFilterAfter(filter, afterId, pageSize + 1), pageSize);
+    }
+
+    /**
+     * Gets the orders matching a filter before an id in descending id order, without counting the total (keyset pagination)
+     *
+     * @param filter   The conditions the orders must meet
+     * @param beforeId Only return orders with a smaller id
+     * @param pageSize The maximum number of orders to return
+     * @return The slice of orders, which knows whether there are more before it
+     */
+    public Slice<Order> findSliceBefore(OrderFilter filter, int beforeId, int pageSize) {
+        return toSlice(orderRepository.findByFilterBefore(filter, beforeId, pageSize + 1), pageSize);
+    }
+
+    public long count(OrderFilter filter) {
+        return orderRepository.countByFilter(filter);
+    }
+
+    /**
+     * Gets the ids of order statuses by name
+     *
+     * @param names The names of the order statuses, in any case
+     * @return The ids of the order statuses
+     * @throws IllegalArgumentException If there is no order status with one of the names
+     */
+    public List<Integer> getOrderStatusIds(Collection<String> names) {
+        CatalogSnapshot catalog = catalogService.getSnapshot();
+        for (String name : names) {
+            if (!catalog.hasOrderStatus(name)) {
+                throw new IllegalArgumentException("Unknown order status: " + name);
+            }
+        }
+        return catalog.getOrderStatusIds(names.toArray(String[]::new));
+    }
+
+    /**
+     * Streams all orders in id order from a database cursor. Must be called and consumed inside a transaction.
+     *
+     * @return The stream of orders, which must be closed
+     */
+    public Stream<Order> streamAll() {
+        return orderRepository.streamAllByOrderById();
+    }
+
     public Optional<Order> findById(Integer orderId) {
         return orderRepository.findById(orderId);
     }
 
-}
+    /**
+     * Reads what the representation of an order depends on without loading it, see {@link #getFingerprint(List)}
+     *
+     * @param orderId The ID of the order
+     * @return The versions of the order and the columns of its items, empty if the order does not exist
+     */
+    public List<OrderItemVersion> findOrderItemVersionsById(Integer orderId) {
+        return orderRepository.findOrderItemVersionsById(orderId);
+    }
+
+    /**
+     * Gets a fingerprint of the representation of an order, which changes whenever the order, one of its items
+     * or the catalog names of their products change
+     *
+     * @param orderItemVersions The versions read by {@link #findOrderItemVersionsById(Integer)}
+     * @return The fingerprint
+     */
+    public String getFingerprint(List<OrderItemVersion> orderItemVersions) {
+        return OrderFingerprintUtility.getFingerprint(orderItemVersions, catalogService.getSnapshot());
+    }
 
+    /**
+     * @param order An order loaded with its items
+     * @return The same fingerprint as {@link #getFingerprint(List)} gives for the versions read from the database
+     */
+    public String getFingerprint(Order order) {
+        return getFingerprint(OrderFingerprintUtility.getOrderItemVersions(order));
+    }
+
+    /**
+     * Gets an order with its items loaded in the same query
+     *
+     * @param orderId The ID of the order
+     * @return The order, if found
+     */
+    public Optional<Order> findWithItemsById(Integer orderId) {
+        return orderRepository.findWithItemsById(orderId);
+    }
+
+    /**
+     * Gets the orders with some ids, with their items loaded in the same query
+     *
+     * @param orderIds The IDs of the orders
+     * @return The orders found, in no particular order
+     */
+    public List<Order> findAllWithItemsByIdIn(Collection<Integer> orderIds) {
+        return orderRepository.findAllWithItemsByIdIn(orderIds);
+    }
+
+    /**
+     * Gets an order with everything printed on its invoice loaded in the same query
+     *
+     * @param orderId The ID of the order
+     * @return The order, if found
+     */
+    public Optional<Order> findWithInvoiceDataById(Integer orderId) {
+        return orderRepository.findWithInvoiceDataById(orderId);
+    }
+
+    public List<Integer> findIdsByCustomerIdAndOrderDateRange(Integer customerId, Date from, Date to) {
+        return orderRepository.findIdsByCustomerIdAndOrderDateRange(customerId, from, to);
+    }
 
+    /**
+     * Gets the ids of the pending and processing orders, i.e. the orders that have a downloadable invoice
+     *
+     * @return The order ids in ascending order
+     */
+    public List<Integer> findActiveOrderIds() {
+        List<Integer> activeOrderStatusIds = catalogService.getSnapshot().getOrderStatusIds(OrderStatus.PENDING, OrderStatus.PROCESSING);
+        if (activeOrderStatusIds.isEmpty()) {
+            return List.of();
+        }
+        return orderRepository.findIdsByOrderStatusIdIn(activeOrderStatusIds);
+    }
+
+    public List<Integer> findIdsByCustomerIdAfter(Integer customerId, Integer afterId, int pageSize) {
+        return orderRepository.findIdsByCustomerIdAfter(customerId, afterId, PageRequest.of(0, pageSize));
+    }
+
+    public List<Order> findAllWithInvoiceDataByIdIn(Collection<Integer> orderIds) {
+        return orderRepository.findAllWithInvoiceDataByIdIn(orderIds);
+    }
+
+    /**
+     * @param orders   Up to one more order than fits on the page
+     * @param pageSize The number of orders on the page
+     * @return The first pageSize orders, knowing whether there was one more
+     */
+    private static Slice<Order> toSlice(List<Order> orders, int pageSize) {
+        boolean hasNext = orders.size() > pageSize;
+        return new SliceImpl<>(hasNext ? orders.subList(0, pageSize) : orders, PageRequest.of(0, pageSize), hasNext);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.CatalogChangedEvent;
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
+import com.example.assignmenttwo_starter.model.Category;
+import com.example.assignmenttwo_starter.model.Product;
+import com.example.assignmenttwo_starter.model.ProductIndexStatistics;
+import com.example.assignmenttwo_starter.model.ProductRequest;
+import com.example.assignmenttwo_starter.repositories.CategoryRepository;
+import com.example.assignmenttwo_starter.repositories.ProductRepository;
+import com.example.assignmenttwo_starter.utilities.IdAllocator;
+import com.example.assignmenttwo_starter.utilities.ProductSearchIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes products and serves product lookups and searches from a {@link ProductSearchIndex}.
+ * The index is built from the products table at startup. After that each product written through JPA is re-read
+ * and replaced in the index on its own, once its transaction has committed; a changed category rebuilds the index,
+ * as every product of the category carries its name.
+ * Index writers are serialized, so a product read before a newer version of it is never installed after it; searches only wait for the swap.
+ */
+@Service
+public class ProductService {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private IdBlockService idBlockService;
+
+    private final TransactionTemplate readTransaction;
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    // Guarded by indexLock
+    private ProductSearchIndex index = new ProductSearchIndex();
+
+    private IdAllocator idAllocator;
+
+    public ProductService(PlatformTransactionManager transactionManager) {
+        // Products are re-read after the transaction that wrote them has committed,
+        // in a transaction of its own so they are not served from that transaction's persistence context
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void initIdAllocator() {
+        idAllocator = idBlockService.getAllocator("products", productRepository::getMaxId);
+    }
+
+    /**
+     * Builds a new index from all products and installs it. Searches keep using the previous index until it is installed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuildIndex() {
+        var rebuilt = new ProductSearchIndex();
+        List<Product> products = readTransaction.execute(status -> productRepository.findAllWithCategory());
+        for (Product product : products) {
+            rebuilt.put(CatalogSnapshot.ProductEntry.of(product));
+        }
+        indexLock.writeLock().lock();
+        try {
+            index = rebuilt;
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.entity() instanceof Product product) {
+            refreshProduct(product.getId());
+        } else if (event.entity() instanceof Category) {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Creates a product
+     *
+     * @param request The values of the product
+     * @return The product
+     * @throws IllegalArgumentException If the category does not exist
+     */
+    @Transactional
+    public Product createProduct(ProductRequest request) {
+        var product = new Product();
+        product.setId(idAllocator.nextId());
+        setValues(product, request);
+        entityManager.persist(product);
+        return product;
+    }
+
+    /**
+     * Updates a product
+     *
+     * @param productId The ID of the product
+     * @param request   The new values of the product
+     * @return The product, or empty if it does not exist
+     * @throws IllegalArgumentException If the category does not exist
+     */
+    @Transactional
+    public Optional<Product> updateProduct(Integer productId, ProductRequest request) {
+        Optional<Product> product = productRepository.findById(productId);
+        product.ifPresent(existing -> setValues(existing, request));
+        return product;
+    }
+
+    /**
+     * @param productId The ID of the product
+     * @return The product as indexed, or null if it does not exist
+     */
+    public CatalogSnapshot.ProductEntry findIndexedById(int productId) {
+        indexLock.readLock().lock();
+        try {
+            return index.get(productId);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the products, see {@link ProductSearchIndex#search(String, Integer, BigDecimal, BigDecimal)}
+     *
+     * @return The matching products, best match first, then by id
+     */
+    public List<ProductSearchIndex.Hit> search(String query, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        indexLock.readLock().lock();
+        try {
+            return index.search(query, categoryId, minPrice, maxPrice);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    public ProductIndexStatistics getIndexStatistics() {
+        indexLock.readLock().lock();
+        try {
+            return index.getStatistics();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    private void setValues(Product product, ProductRequest request) {
+        Category category = categoryRepository.findById(request.categoryId())
+                .orElseThrow(() -> new IllegalArgumentException("Category with ID " + request.categoryId() + " not found"));
+        product.setName(request.name());
+        product.setDescription(request.description());
+        product.setPrice(request.price());
+        product.setImage(request.image());
+        product.setCategory(category);
+    }
+
+    private synchronized void refreshProduct(Integer productId) {
+        Optional<CatalogSnapshot.ProductEntry> product = readTransaction.execute(status ->
+                productRepository.findWithCategoryById(productId).map(CatalogSnapshot.ProductEntry::of));
+        indexLock.writeLock().lock();
+        try {
+            if (product.isPresent()) {
+                index.put(product.get());
+            } else {
+                index.remove(productId);
+            }
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+}
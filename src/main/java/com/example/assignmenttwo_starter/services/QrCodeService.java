@@ -0,0 +1,100 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.utilities.ByteArrayLruCache;
+import com.example.assignmenttwo_starter.utilities.QrCodeSheetPdfBuilder;
+import com.example.assignmenttwo_starter.utilities.QrCodeUtility;
+import com.itextpdf.text.DocumentException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+@Service
+public class QrCodeService {
+    private final ByteArrayLruCache<String> qrCodeCache;
+
+    public QrCodeService(@Value("${qrcode.cache.max-bytes:4194304}") long qrCodeCacheMaxBytes) {
+        this.qrCodeCache = new ByteArrayLruCache<>(qrCodeCacheMaxBytes);
+    }
+
+    /**
+     * Gets the key of a QR code, which depends only on the encoded text and the size
+     *
+     * @param text        The text to encode
+     * @param pixelLength The width and height of the image in pixels
+     * @return A hash of the text followed by the size, usable as a strong ETag
+     */
+    public String getKey(String text, int pixelLength) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8))) + "-" + pixelLength;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Gets a QR code as PNG bytes, encoding it only if it is not cached
+     *
+     * @param text        The text to encode
+     * @param pixelLength The width and height of the image in pixels
+     * @return The PNG bytes
+     */
+    public byte[] getQrCodePng(String text, int pixelLength) throws IOException {
+        String key = getKey(text, pixelLength);
+        byte[] png = qrCodeCache.get(key, key);
+        if (png == null) {
+            png = QrCodeUtility.getQrCodePng(text, pixelLength);
+            qrCodeCache.put(key, key, png);
+        }
+        return png;
+    }
+
+    /**
+     * Gets a QR code from the cache, without encoding it
+     *
+     * @param text        The text that was encoded
+     * @param pixelLength The width and height of the image in pixels
+     * @return The PNG bytes, or null if the QR code has to be encoded
+     */
+    public byte[] findQrCodePng(String text, int pixelLength) {
+        String key = getKey(text, pixelLength);
+        return qrCodeCache.get(key, key);
+    }
+
+    /**
+     * Gets several QR codes as PNG bytes, encoding the ones that are not cached one after the other on the calling thread.
+     * Callers run this as a single render on the rendering pool, so it must not fan out to other threads.
+     *
+     * @param texts       The texts to encode
+     * @param pixelLength The width and height of each image in pixels
+     * @return The PNG bytes, in the same order as the texts
+     */
+    public List<byte[]> getQrCodePngs(List<String> texts, int pixelLength) throws IOException {
+        List<byte[]> pngs = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            pngs.add(getQrCodePng(text, pixelLength));
+        }
+        return pngs;
+    }
+
+    /**
+     * Writes a printable PDF sheet of labelled QR codes
+     *
+     * @param title        The title of the sheet
+     * @param labels       The label of each QR code
+     * @param texts        The text to encode in each QR code, in the same order as the labels
+     * @param pixelLength  The width and height of each QR code in pixels
+     * @param outputStream The stream to write the PDF to
+     */
+    public void writeQrCodeSheetPdf(String title, List<String> labels, List<String> texts, int pixelLength, OutputStream outputStream) throws DocumentException, IOException {
+        new QrCodeSheetPdfBuilder(title, labels, getQrCodePngs(texts, pixelLength)).generatePdfReport(outputStream);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.RenderingStatistics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs CPU-heavy renders (invoice PDFs, QR codes) requested by clients on a pool of its own, so a burst of them
+ * cannot take every servlet thread. At most a fixed number of renders run at once and a bounded number wait;
+ * once the queue is full further renders are rejected straight away, and the endpoints answer 503 with Retry-After.
+ * <p>
+ * The rendering endpoints are asynchronous: the servlet thread only hands the request over. What comes before the render
+ * (looking up the entity, the conditional check, the caches) runs on a second, bounded request pool, so cached
+ * results are not held up behind renders, and the render itself is then queued on the rendering pool.
+ */
+@Service
+public class RenderingService {
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor requestExecutor;
+    private final int threads;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param threads              The number of renders that may run at once, 0 for one per processor
+     * @param queueCapacity        The number of renders that may wait for a thread
+     * @param requestThreads       The number of requests to rendering endpoints prepared at once, 0 for two per processor
+     * @param requestQueueCapacity The number of requests to rendering endpoints that may wait to be prepared
+     * @param retryAfterSeconds    The delay suggested to clients whose render was rejected
+     */
+    public RenderingService(@Value("${rendering.threads:0}") int threads,
+                            @Value("${rendering.queue-capacity:20}") int queueCapacity,
+                            @Value("${rendering.request-threads:0}") int requestThreads,
+                            @Value("${rendering.request-queue-capacity:100}") int requestQueueCapacity,
+                            @Value("${rendering.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = newExecutor(this.threads, this.queueCapacity, "render-");
+        this.requestExecutor = newExecutor(requestThreads > 0 ? requestThreads : 2 * Runtime.getRuntime().availableProcessors(),
+                Math.max(0, requestQueueCapacity), "render-request-");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the part of a request to a rendering endpoint that comes before the render on the request pool
+     *
+     * @param task The lookups and checks, returning the response or the future of the render
+     * @return The result of the task, once it has run. Fails with {@link RejectedExecutionException}
+     * if every request thread is busy and the request queue is full.
+     */
+    public <T> CompletableFuture<T> prepare(Callable<T> task) {
+        var future = new CompletableFuture<T>();
+        try {
+            requestExecutor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedRequests.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Queues a render
+     *
+     * @param task The render
+     * @return The result of the render, once it has run. Fails with {@link RejectedExecutionException}
+     * if every thread is busy and the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        var future = new CompletableFuture<T>();
+        long queuedAt = System.nanoTime();
+        submitted.increment();
+        try {
+            executor.execute(() -> {
+                long waitNanos = System.nanoTime() - queuedAt;
+                started.increment();
+                totalWaitNanos.add(waitNanos);
+                maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+                try {
+                    T result = task.call();
+                    completed.increment();
+                    future.complete(result);
+                } catch (Throwable e) {
+                    failed.increment();
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.decrement();
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return The number of seconds clients whose render was rejected are asked to wait before retrying
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public RenderingStatistics getStatistics() {
+        long startedCount = started.sum();
+        double averageWaitMillis = startedCount == 0 ? 0 : totalWaitNanos.sum() / 1e6 / startedCount;
+        return new RenderingStatistics(threads, queueCapacity, executor.getActiveCount(), executor.getQueue().size(),
+                submitted.sum(), completed.sum(), failed.sum(), rejected.sum(),
+                averageWaitMillis, maxWaitNanos.get() / 1e6,
+                requestExecutor.getActiveCount(), requestExecutor.getQueue().size(), rejectedRequests.sum());
+    }
+
+    public void clearStatistics() {
+        submitted.reset();
+        completed.reset();
+        failed.reset();
+        rejected.reset();
+        rejectedRequests.reset();
+        started.reset();
+        totalWaitNanos.reset();
+        maxWaitNanos.set(0);
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threads, int queueCapacity, String threadNamePrefix) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                new CustomizableThreadFactory(threadNamePrefix), new ThreadPoolExecutor.AbortPolicy());
+    }
+}
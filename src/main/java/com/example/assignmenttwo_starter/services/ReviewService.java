@@ -0,0 +1,203 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.ProductRating;
+import com.example.assignmenttwo_starter.model.ProductReview;
+import com.example.assignmenttwo_starter.model.Review;
+import com.example.assignmenttwo_starter.repositories.ProductRatingRepository;
+import com.example.assignmenttwo_starter.repositories.ProductRepository;
+import com.example.assignmenttwo_starter.repositories.ReviewRepository;
+import com.example.assignmenttwo_starter.utilities.IdAllocator;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes reviews and keeps the {@link ProductRating} totals of their products in step, in the same transaction.
+ * The totals are recomputed from the reviews table at startup, which covers the seed data and reviews written straight in the database.
+ * Writing a review also increments the version of its customer, as the reviews are part of the customer's representation and ETag.
+ */
+@Service
+public class ReviewService {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private ProductRatingRepository productRatingRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private IdBlockService idBlockService;
+
+    private final TransactionTemplate createTransaction;
+    private IdAllocator idAllocator;
+
+    public ReviewService(PlatformTransactionManager transactionManager) {
+        this.createTransaction = new TransactionTemplate(transactionManager);
+        this.createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void initIdAllocator() {
+        idAllocator = idBlockService.getAllocator("reviews", reviewRepository::getMaxId);
+    }
+
+    /**
+     * Replaces the rating totals of every product with totals computed from the reviews
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildRatings() {
+        productRatingRepository.deleteAllInBulk();
+        productRatingRepository.insertFromReviews();
+    }
+
+    /**
+     * Adds a review to a product and counts it in the product's rating totals
+     *
+     * @param productId  The ID of the product
+     * @param customerId The ID of the customer writing the review
+     * @param rating     The rating, from 1 to 5
+     * @param comment    The comment, if any
+     * @return The review
+     * @throws IllegalArgumentException If the product or customer does not exist or the rating is out of range
+     */
+    @Transactional
+    public Review createReview(Integer productId, Integer customerId, int rating, String comment) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Product with ID " + productId + " not found");
+        }
+        // Locked before the rating, in the same order as deleteReview
+        Customer customer = entityManager.find(Customer.class, customerId, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer with ID " + customerId + " not found");
+        }
+
+        ProductRating productRating = lockRating(productId);
+        productRating.add(rating);
+        Review review = new Review(idAllocator.nextId(), rating, comment, productRepository.getReferenceById(productId), customer);
+        entityManager.persist(review);
+        return review;
+    }
+
+    /**
+     * Deletes a review of a product and takes it out of the product's rating totals
+     *
+     * @param productId The ID of the product
+     * @param reviewId  The ID of the review
+     * @return Whether the product had the review
+     */
+    @Transactional
+    public boolean deleteReview(Integer productId, Integer reviewId) {
+        Optional<Review> review = reviewRepository.findById(reviewId);
+        if (review.isEmpty() || review.get().getProduct() == null || !productId.equals(review.get().getProduct().getId())) {
+            return false;
+        }
+
+        if (review.get().getCustomer() != null) {
+            entityManager.lock(review.get().getCustomer(), LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+        Integer rating = review.get().getRating();
+        if (rating != null && rating >= ProductRating.MIN_RATING && rating <= ProductRating.MAX_RATING) {
+            lockRating(productId).remove(rating);
+        }
+        reviewRepository.delete(review.get());
+        return true;
+    }
+
+    /**
+     * @param productId The ID of the product
+     * @return The rating totals of the product, all zero if it has no reviews
+     */
+    public ProductRating getRating(Integer productId) {
+        return productRatingRepository.findById(productId).orElseGet(() -> new ProductRating(productId));
+    }
+
+    /**
+     * Gets the rating totals of several products in one query
+     *
+     * @param productIds The IDs of the products
+     * @return The totals by product ID, leaving out products without reviews
+     */
+    public Map<Integer, ProductRating> getRatings(Collection<Integer> productIds) {
+        return productRatingRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductRating::getProductId, Function.identity()));
+    }
+
+    /**
+     * Gets the reviews of a product after an id in id order (keyset pagination)
+     *
+     * @param productId       The ID of the product
+     * @param afterId         Only return reviews with a greater id
+     * @param pageSize        The maximum number of reviews to return
+     * @param includeComments Whether to read the comments, which are LOBs
+     * @return The slice of reviews, which knows whether there are more after it
+     */
+    public Slice<ProductReview> findSliceAfter(Integer productId, Integer afterId, int pageSize, boolean includeComments) {
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+        return includeComments
+                ? reviewRepository.findFeedWithCommentsAfter(productId, afterId, pageRequest)
+                : reviewRepository.findFeedAfter(productId, afterId, pageRequest);
+    }
+
+    /**
+     * Gets the reviews of a product before an id in descending id order (keyset pagination)
+     *
+     * @param productId       The ID of the product
+     * @param beforeId        Only return reviews with a smaller id
+     * @param pageSize        The maximum number of reviews to return
+     * @param includeComments Whether to read the comments, which are LOBs
+     * @return The slice of reviews, which knows whether there are more before it
+     */
+    public Slice<ProductReview> findSliceBefore(Integer productId, Integer beforeId, int pageSize, boolean includeComments) {
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+        return includeComments
+                ? reviewRepository.findFeedWithCommentsBefore(productId, beforeId, pageRequest)
+                : reviewRepository.findFeedBefore(productId, beforeId, pageRequest);
+    }
+
+    public long countByProductId(Integer productId) {
+        return reviewRepository.countByProductId(productId);
+    }
+
+    public boolean productExists(Integer productId) {
+        return productRepository.existsById(productId);
+    }
+
+    /**
+     * @return The rating totals of a product locked for update, created if the product has had no reviews yet.
+     * The totals are created in a transaction of their own, so when the first two reviews of a product arrive together
+     * one of them creates the row, the other one's insert finds it or fails on the key, and both then lock the same row.
+     */
+    private ProductRating lockRating(Integer productId) {
+        Optional<ProductRating> productRating = productRatingRepository.findForUpdate(productId);
+        if (productRating.isPresent()) {
+            return productRating.get();
+        }
+        try {
+            createTransaction.executeWithoutResult(status -> productRatingRepository.insertIfAbsent(productId));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent review
+        }
+        return productRatingRepository.findForUpdate(productId).orElseThrow();
+    }
+}
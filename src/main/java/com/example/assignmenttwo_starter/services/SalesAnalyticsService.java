@@ -0,0 +1,274 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
+import com.example.assignmenttwo_starter.model.CategorySales;
+import com.example.assignmenttwo_starter.model.DailySales;
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderChangedEvent;
+import com.example.assignmenttwo_starter.model.OrderItem;
+import com.example.assignmenttwo_starter.model.OrderStatus;
+import com.example.assignmenttwo_starter.model.ProductSales;
+import com.example.assignmenttwo_starter.model.SalesRebuildResult;
+import com.example.assignmenttwo_starter.model.SalesSummary;
+import com.example.assignmenttwo_starter.repositories.OrderRepository;
+import com.example.assignmenttwo_starter.utilities.SalesAggregates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales figures (revenue, units sold and average order value per day, product and category) over the orders that are not cancelled.
+ * The figures are kept in memory and updated from {@link OrderChangedEvent}s, which re-read only the changed order,
+ * so reading them never scans the orders. They are rebuilt from scratch at startup and on request,
+ * which also picks up orders changed outside JPA; the rebuild reads the orders in id ranges on a fork/join pool.
+ * Category figures are summed from the product figures using the current catalog, so they follow products moved between categories.
+ */
+@Service
+public class SalesAnalyticsService {
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private CatalogService catalogService;
+
+    private final int rebuildParallelism;
+    private final int rebuildRangeSize;
+    private final TransactionTemplate refreshTransaction;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private SalesAggregates aggregates = new SalesAggregates();
+    // Guarded by lock, the orders changed while a rebuild is running, or null when none is
+    private Set<Integer> changedDuringRebuild;
+    // Guarded by lock, the latest refresh started for each order whose refresh has not been stored yet
+    private final Map<Integer, Long> latestRefreshes = new HashMap<>();
+    // Guarded by lock
+    private long refreshCount;
+
+    /**
+     * @param rebuildParallelism The number of threads reading orders during a rebuild, 0 for one per processor
+     * @param rebuildRangeSize   The number of order ids read together during a rebuild
+     */
+    public SalesAnalyticsService(@Value("${analytics.rebuild.parallelism:0}") int rebuildParallelism,
+                                 @Value("${analytics.rebuild.range-size:1000}") int rebuildRangeSize,
+                                 PlatformTransactionManager transactionManager) {
+        this.rebuildParallelism = rebuildParallelism > 0 ? rebuildParallelism : Runtime.getRuntime().availableProcessors();
+        this.rebuildRangeSize = Math.max(1, rebuildRangeSize);
+        // The order is re-read after the transaction that changed it has committed,
+        // in a transaction of its own so it is not served from that transaction's persistence context
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Recomputes the figures from all orders. Orders changed while the rebuild runs are re-read once it is done.
+     *
+     * @return The number of orders counted and how long it took
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized SalesRebuildResult rebuild() {
+        long start = System.nanoTime();
+        synchronized (lock) {
+            changedDuringRebuild = new HashSet<>();
+        }
+
+        SalesAggregates rebuilt = null;
+        ForkJoinPool pool = new ForkJoinPool(rebuildParallelism);
+        try {
+            rebuilt = pool.invoke(new RebuildTask(orderRepository.getMinId(), orderRepository.getMaxId(), catalogService.getSnapshot()));
+        } finally {
+            pool.shutdown();
+            Set<Integer> changed;
+            synchronized (lock) {
+                changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+                if (rebuilt != null) {
+                    aggregates = rebuilt;
+                }
+            }
+            if (rebuilt != null) {
+                changed.forEach(this::refreshOrder);
+            }
+        }
+        return new SalesRebuildResult(rebuilt.getOverall().getCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        refreshOrder(event.orderId());
+    }
+
+    /**
+     * @return The figures over all orders
+     */
+    public SalesSummary getSummary() {
+        synchronized (lock) {
+            SalesAggregates.Totals overall = aggregates.getOverall();
+            return new SalesSummary(overall.getCount(), overall.getRevenue(), getAverage(overall), overall.getUnits());
+        }
+    }
+
+    /**
+     * @param from The first day, or null for no lower bound
+     * @param to   The last day, or null for no upper bound
+     * @return The figures of each day in the range with orders, by date
+     */
+    public List<DailySales> getDailySales(LocalDate from, LocalDate to) {
+        var dailySales = new ArrayList<DailySales>();
+        synchronized (lock) {
+            aggregates.getDays().forEach((date, totals) -> {
+                if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))) {
+                    dailySales.add(new DailySales(date, totals.getCount(), totals.getRevenue(), getAverage(totals), totals.getUnits()));
+                }
+            });
+        }
+        dailySales.sort(Comparator.comparing(DailySales::date));
+        return dailySales;
+    }
+
+    /**
+     * @return The figures of each product sold, by revenue, highest first
+     */
+    public List<ProductSales> getProductSales() {
+        CatalogSnapshot catalog = catalogService.getSnapshot();
+        var productSales = new ArrayList<ProductSales>();
+        synchronized (lock) {
+            aggregates.getProducts().forEach((productId, totals) -> {
+                CatalogSnapshot.ProductEntry product = catalog.getProduct(productId);
+                productSales.add(new ProductSales(productId,
+                        product != null ? product.name() : null,
+                        product != null ? product.categoryName() : null,
+                        totals.getUnits(), totals.getRevenue()));
+            });
+        }
+        productSales.sort(Comparator.comparing(ProductSales::revenue).reversed().thenComparing(ProductSales::productId));
+        return productSales;
+    }
+
+    /**
+     * @return The figures of each category with products sold, by revenue, highest first.
+     * Products no longer in the catalog are left out.
+     */
+    public List<CategorySales> getCategorySales() {
+        CatalogSnapshot catalog = catalogService.getSnapshot();
+        var units = new HashMap<Integer, Long>();
+        var revenue = new HashMap<Integer, BigDecimal>();
+        synchronized (lock) {
+            aggregates.getProducts().forEach((productId, totals) -> {
+                CatalogSnapshot.ProductEntry product = catalog.getProduct(productId);
+                if (product != null) {
+                    units.merge(product.categoryId(), totals.getUnits(), Long::sum);
+                    revenue.merge(product.categoryId(), totals.getRevenue(), BigDecimal::add);
+                }
+            });
+        }
+        return units.keySet().stream()
+                .map(categoryId -> {
+                    CatalogSnapshot.CategoryEntry category = catalog.getCategory(categoryId);
+                    return new CategorySales(categoryId, category != null ? category.name() : null, units.get(categoryId), revenue.get(categoryId));
+                })
+                .sorted(Comparator.comparing(CategorySales::revenue).reversed().thenComparing(CategorySales::categoryId))
+                .toList();
+    }
+
+    /**
+     * Re-reads an order and stores what it contributes to the figures. The order is read without holding the lock,
+     * so refreshes and reads of the figures do not wait on each other's queries. When refreshes of the same order overlap,
+     * only the one started last is stored: it started after every change the others were started for, so its read includes them.
+     */
+    private void refreshOrder(Integer orderId) {
+        long refresh;
+        synchronized (lock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(orderId);
+            }
+            refresh = ++refreshCount;
+            latestRefreshes.put(orderId, refresh);
+        }
+
+        CatalogSnapshot catalog = catalogService.getSnapshot();
+        SalesAggregates.OrderSales sales = refreshTransaction.execute(status ->
+                orderRepository.findWithItemsById(orderId).map(order -> toOrderSales(order, catalog)).orElse(null));
+
+        synchronized (lock) {
+            if (latestRefreshes.remove(orderId, refresh)) {
+                aggregates.put(orderId, sales);
+            }
+        }
+    }
+
+    /**
+     * @return What the order contributes to the figures, or null if it is cancelled.
+     * Only the ids of the order status and products are read, so their lazy proxies are not initialized.
+     */
+    private static SalesAggregates.OrderSales toOrderSales(Order order, CatalogSnapshot catalog) {
+        if (order.getOrderStatus() != null && catalog.isOrderStatus(order.getOrderStatus().getId(), OrderStatus.CANCELLED)) {
+            return null;
+        }
+        LocalDate date = order.getOrderDate() != null ? order.getOrderDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+        List<SalesAggregates.LineSales> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            lines.add(new SalesAggregates.LineSales(item.getProduct().getId(),
+                    item.getQuantity() != null ? item.getQuantity() : 0, item.getPrice()));
+        }
+        return new SalesAggregates.OrderSales(date, order.getTotal(), lines);
+    }
+
+    private static BigDecimal getAverage(SalesAggregates.Totals totals) {
+        return totals.getCount() == 0 ? BigDecimal.ZERO : totals.getRevenue().divide(BigDecimal.valueOf(totals.getCount()), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Reads the orders in an id range, splitting it in halves until a half is no larger than the range size
+     */
+    private class RebuildTask extends RecursiveTask<SalesAggregates> {
+        private final int fromId;
+        private final int toId;
+        private final CatalogSnapshot catalog;
+
+        private RebuildTask(int fromId, int toId, CatalogSnapshot catalog) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.catalog = catalog;
+        }
+
+        @Override
+        protected SalesAggregates compute() {
+            if ((long) toId - fromId < rebuildRangeSize) {
+                var rangeAggregates = new SalesAggregates();
+                for (Order order : orderRepository.findAllWithItemsByIdBetween(fromId, toId)) {
+                    rangeAggregates.put(order.getId(), toOrderSales(order, catalog));
+                }
+                return rangeAggregates;
+            }
+            int middleId = (int) (((long) fromId + toId) / 2);
+            RebuildTask lower = new RebuildTask(fromId, middleId, catalog);
+            lower.fork();
+            SalesAggregates upperAggregates = new RebuildTask(middleId + 1, toId, catalog).compute();
+            SalesAggregates lowerAggregates = lower.join();
+            lowerAggregates.putAll(upperAggregates);
+            return lowerAggregates;
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.example.assignmenttwo_starter.services;
 
 import com.example.assignmenttwo_starter.model.Subscription;
 import com.example.assignmenttwo_starter.repositories.SubscriptionRepository;
+import com.example.assignmenttwo_starter.utilities.IdAllocator;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +18,18 @@ import java.util.Optional;
 public class SubscriptionService {
     @Autowired
     private SubscriptionRepository subscriptionRepository;
+    @Autowired
+    private IdBlockService idBlockService;
+
+    private IdAllocator idAllocator;
+
+    @PostConstruct
+    public void initIdAllocator() {
+        idAllocator = idBlockService.getAllocator("subscription", subscriptionRepository::getMaxId);
+    }
 
     public Subscription createSubscription(Subscription subscription) {
-        subscription.setId(subscriptionRepository.getNextFreeId());
+        subscription.setId(idAllocator.nextId());
         return subscriptionRepository.save(subscription);
     }
 
@@ -36,10 +49,60 @@ public class SubscriptionService {
         return subscriptionRepository.findAll(pageRequest);
     }
 
+    public Page<Subscription> findAllByNameContainingIgnoreCase(String name, PageRequest pageRequest) {
+        return subscriptionRepository.findAllByNameContainingIgnoreCase(name, pageRequest);
+    }
+
+    /**
+     * Gets the subscriptions after an id in id order, without counting the total (keyset pagination)
+     *
+     * @param afterId  Only return subscriptions with a greater id
+     * @param pageSize The maximum number of subscriptions to return
+     * @return The slice of subscriptions, which knows whether there are more after it
+     */
+    public Slice<Subscription> findSliceAfter(Integer afterId, int pageSize) {
+        return subscriptionRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Gets the subscriptions before an id in descending id order, without counting the total (keyset pagination)
+     *
+     * @param beforeId Only return subscriptions with a smaller id
+     * @param pageSize The maximum number of subscriptions to return
+     * @return The slice of subscriptions, which knows whether there are more before it
+     */
+    public Slice<Subscription> findSliceBefore(Integer beforeId, int pageSize) {
+        return subscriptionRepository.findByIdLessThanOrderByIdDesc(beforeId, PageRequest.of(0, pageSize));
+    }
+
+    public long count() {
+        return subscriptionRepository.count();
+    }
+
     public Optional<Subscription> findById(Integer subscriptionId) {
         return subscriptionRepository.findById(subscriptionId);
     }
 
+    /**
+     * Gets the subscriptions with some ids in one query
+     *
+     * @param subscriptionIds The IDs of the subscriptions
+     * @return The subscriptions found, in no particular order
+     */
+    public List<Subscription> findAllById(Collection<Integer> subscriptionIds) {
+        return subscriptionRepository.findAllById(subscriptionIds);
+    }
+
+    /**
+     * Gets the version of a subscription, which changes whenever it is updated
+     *
+     * @param subscriptionId The ID of the subscription
+     * @return The version, if the subscription exists
+     */
+    public Optional<Long> findVersionById(Integer subscriptionId) {
+        return subscriptionRepository.findVersionById(subscriptionId);
+    }
+
     public Subscription updateSubscription(Subscription subscription) {
         return subscriptionRepository.save(subscription);
     }
@@ -0,0 +1,68 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out ids from blocks reserved in one go (hi/lo style).
+ * Ids within a block are handed out with a single atomic increment; only the thread that finds the block used up
+ * reserves the next one, while the others wait for it.
+ * Ids of a block that is not used up before a restart are skipped, never handed out twice.
+ */
+public class BlockIdAllocator implements IdAllocator {
+    private final BlockReserver blockReserver;
+    private final int blockSize;
+    private volatile Block currentBlock = new Block(0, 0);
+
+    /**
+     * @param blockReserver Reserves the blocks
+     * @param blockSize     The number of ids to reserve at a time
+     */
+    public BlockIdAllocator(BlockReserver blockReserver, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        this.blockReserver = blockReserver;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int nextId() {
+        while (true) {
+            Block block = currentBlock;
+            int id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            reserveBlockAfter(block);
+        }
+    }
+
+    private synchronized void reserveBlockAfter(Block usedUpBlock) {
+        if (currentBlock == usedUpBlock) {
+            int start = blockReserver.reserve(blockSize);
+            currentBlock = new Block(start, start + blockSize);
+        }
+    }
+
+    /**
+     * Reserves a block of consecutive ids that no other allocator will hand out
+     */
+    @FunctionalInterface
+    public interface BlockReserver {
+        /**
+         * @param blockSize The number of ids to reserve
+         * @return The first id of the block
+         */
+        int reserve(int blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicInteger next;
+        private final int end;
+
+        private Block(int start, int end) {
+            this.next = new AtomicInteger(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of byte arrays that is bounded by the total number of bytes it holds
+ * rather than by the number of entries.
+ * Each entry carries a tag (e.g. a fingerprint of the source data) so a stale entry is treated as a miss
+ * and replaced on the next put.
+ *
+ * @param <K> The type of the cache key
+ */
+public class ByteArrayLruCache<K> {
+    private final long maxBytes;
+    private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+
+    public ByteArrayLruCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached content for the key if it was stored with the same tag
+     *
+     * @param key The key of the entry
+     * @param tag The tag the entry must have been stored with
+     * @return The cached content, or null if there is no entry or the entry is stale
+     */
+    public synchronized byte[] get(K key, String tag) {
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.tag().equals(tag)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.content();
+    }
+
+    /**
+     * Stores the content for the key, replacing any previous entry and evicting the least recently used
+     * entries until the cache fits within its byte limit. Content larger than the whole cache is not stored.
+     *
+     * @param key     The key of the entry
+     * @param tag     The tag to store the entry with
+     * @param content The content to store
+     */
+    public synchronized void put(K key, String tag, byte[] content) {
+        remove(key);
+        if (content.length > maxBytes) {
+            return;
+        }
+        entries.put(key, new Entry(tag, content));
+        currentBytes += content.length;
+
+        Iterator<Map.Entry<K, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            currentBytes -= iterator.next().getValue().content().length;
+            iterator.remove();
+        }
+    }
+
+    public synchronized void remove(K key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= removed.content().length;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private record Entry(String tag, byte[] content) {
+    }
+}
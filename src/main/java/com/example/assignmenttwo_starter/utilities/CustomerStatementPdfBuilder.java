@@ -0,0 +1,138 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
+import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderItem;
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Builds a statement of every order of a customer.
+ * Orders are pulled a page at a time and the table is written as a large table (see {@link PdfPTable#setComplete(boolean)}),
+ * so completed rows are flushed to the document instead of the whole history being held in memory.
+ */
+public class CustomerStatementPdfBuilder {
+    private static final int FLUSH_EVERY_ROWS = 50;
+    private static final int COLUMNS = 6;
+
+    private final Customer customer;
+    private final Iterator<List<Order>> orderPages;
+    private final CatalogSnapshot catalog;
+
+    /**
+     * @param customer   the customer the statement is for
+     * @param orderPages the orders of the customer, a page at a time, with their items loaded
+     * @param catalog    the catalog to read product names from
+     */
+    public CustomerStatementPdfBuilder(Customer customer, Iterator<List<Order>> orderPages, CatalogSnapshot catalog) {
+        this.customer = customer;
+        this.orderPages = orderPages;
+        this.catalog = catalog;
+    }
+
+    // Instance methods
+    public void generatePdfReport(OutputStream outputStream) throws DocumentException, IOException {
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, outputStream);
+        document.open();
+        document.add(getHeaderParagraph(customer));
+
+        var table = new PdfPTable(COLUMNS);
+        table.setComplete(false);
+        table.setHeaderRows(1);
+        addHeaderCellsToTable(table);
+
+        BigDecimal runningTotal = BigDecimal.ZERO;
+        int orderCount = 0;
+        int rowsSinceFlush = 0;
+        while (orderPages.hasNext()) {
+            for (Order order : orderPages.next()) {
+                BigDecimal subtotal = BigDecimal.ZERO;
+                for (OrderItem orderItem : order.getOrderItems()) {
+                    addCellsForOrderItemToTable(table, order, orderItem, catalog);
+                    subtotal = subtotal.add(orderItem.getPrice());
+                    rowsSinceFlush++;
+                }
+                runningTotal = runningTotal.add(subtotal);
+                addSubtotalCellsToTable(table, order, subtotal, runningTotal);
+                orderCount++;
+                rowsSinceFlush++;
+
+                if (rowsSinceFlush >= FLUSH_EVERY_ROWS) {
+                    document.add(table);
+                    rowsSinceFlush = 0;
+                }
+            }
+        }
+
+        table.setComplete(true);
+        document.add(table);
+        document.add(new Paragraph("Orders: " + orderCount));
+        document.add(new Paragraph("Total: " + runningTotal));
+        document.close();
+    }
+
+    // Static methods
+    /**
+     * Adds the (6) header cells to the table
+     * @param table the table to add the cells to
+     */
+    public static void addHeaderCellsToTable(PdfPTable table) {
+        table.addCell(OrderPdfBuilder.getHeaderCell("Order #", Element.ALIGN_LEFT));
+        table.addCell(OrderPdfBuilder.getHeaderCell("Date", Element.ALIGN_LEFT));
+        table.addCell(OrderPdfBuilder.getHeaderCell("Product", Element.ALIGN_LEFT));
+        table.addCell(OrderPdfBuilder.getHeaderCell("Quantity", Element.ALIGN_RIGHT));
+        table.addCell(OrderPdfBuilder.getHeaderCell("Price", Element.ALIGN_RIGHT));
+        table.addCell(OrderPdfBuilder.getHeaderCell("Running Total", Element.ALIGN_RIGHT));
+    }
+
+    /**
+     * Adds the (6) cells for an order item to the table, leaving the running total empty
+     *
+     * @param table     the table to add the cells to
+     * @param order     the order the item belongs to
+     * @param orderItem the order item to get the data from
+     * @param catalog   the catalog to get the product name from
+     */
+    public static void addCellsForOrderItemToTable(PdfPTable table, Order order, OrderItem orderItem, CatalogSnapshot catalog) {
+        table.addCell(OrderPdfBuilder.getCell(order.getId().toString(), Element.ALIGN_LEFT));
+        table.addCell(OrderPdfBuilder.getCell(String.valueOf(order.getOrderDate()), Element.ALIGN_LEFT));
+        table.addCell(OrderPdfBuilder.getCell(catalog.getProduct(orderItem.getProduct()).name(), Element.ALIGN_LEFT));
+        table.addCell(OrderPdfBuilder.getCell(orderItem.getQuantity().toString(), Element.ALIGN_RIGHT));
+        table.addCell(OrderPdfBuilder.getCell(orderItem.getPrice().toString(), Element.ALIGN_RIGHT));
+        table.addCell(OrderPdfBuilder.getCell("", Element.ALIGN_RIGHT));
+    }
+
+    /**
+     * Adds a row with the subtotal of an order and the running total of the statement so far
+     *
+     * @param table        the table to add the cells to
+     * @param order        the order the subtotal is for
+     * @param subtotal     the sum of the prices of the order items
+     * @param runningTotal the sum of the subtotals of this and all previous orders
+     */
+    public static void addSubtotalCellsToTable(PdfPTable table, Order order, BigDecimal subtotal, BigDecimal runningTotal) {
+        PdfPCell labelCell = OrderPdfBuilder.getCell("Subtotal for order #" + order.getId() + " (" + order.getOrderStatus().getName() + ")", Element.ALIGN_LEFT);
+        labelCell.setColspan(4);
+        table.addCell(labelCell);
+        table.addCell(OrderPdfBuilder.getCell(subtotal.toString(), Element.ALIGN_RIGHT));
+        table.addCell(OrderPdfBuilder.getCell(runningTotal.toString(), Element.ALIGN_RIGHT));
+    }
+
+    public static Paragraph getHeaderParagraph(Customer customer) {
+        var headerParagraph = new Paragraph();
+        headerParagraph.add(new Paragraph("Statement for:" + customer.getFirstName() + " " + customer.getLastName()));
+        headerParagraph.add(new Paragraph("Customer #:" + customer.getId().toString()));
+        headerParagraph.add(new Paragraph(" "));
+        return headerParagraph;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ETags of versioned entities. The ETag of an entity is made from its {@code @Version}, or a fingerprint of the versions
+ * its representation depends on, which change on every update, so a conditional request can be answered without loading the entity.
+ * The same entity has a different ETag in each media type, as a strong ETag identifies the bytes of one representation.
+ */
+public class EntityTagUtility {
+    /**
+     * The media types the entity endpoints produce, in order of preference
+     */
+    public static final List<MediaType> ENTITY_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML,
+            MediaType.APPLICATION_CBOR, MediaType.parseMediaType(BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE));
+
+    /**
+     * @param state     The version of the entity, or a fingerprint of its representation
+     * @param mediaType The media type of the representation, see {@link #getMediaType(String)}
+     * @return A strong ETag of the representation
+     */
+    public static String getETag(Object state, MediaType mediaType) {
+        return "\"" + state + "-" + mediaType.getSubtype() + "\"";
+    }
+
+    /**
+     * Works out which of the {@link #ENTITY_MEDIA_TYPES} content negotiation picks for an Accept header, the same way Spring MVC does,
+     * so the ETag can be checked before the response is written
+     *
+     * @param accept The Accept header of the request, may be null
+     * @return The media type of the response. JSON if the header is missing or invalid, or accepts none of the types
+     * (the request is then answered with 406 or 400 anyway).
+     */
+    public static MediaType getMediaType(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return ENTITY_MEDIA_TYPES.get(0);
+        }
+        try {
+            var compatibleTypes = new ArrayList<MediaType>();
+            for (MediaType acceptedType : MediaType.parseMediaTypes(accept)) {
+                for (MediaType producibleType : ENTITY_MEDIA_TYPES) {
+                    if (acceptedType.isCompatibleWith(producibleType)) {
+                        compatibleTypes.add(producibleType.copyQualityValue(acceptedType));
+                    }
+                }
+            }
+            MimeTypeUtils.sortBySpecificity(compatibleTypes);
+            return compatibleTypes.isEmpty() ? ENTITY_MEDIA_TYPES.get(0) : compatibleTypes.get(0).removeQualityValue();
+        } catch (IllegalArgumentException e) {
+            // An invalid header, or one with too many types to sort
+            return ENTITY_MEDIA_TYPES.get(0);
+        }
+    }
+
+    /**
+     * Checks a conditional request without the {@link org.springframework.web.context.request.WebRequest},
+     * for handlers that compute the ETag off the request thread
+     *
+     * @param ifNoneMatch The If-None-Match header of the request, may be null
+     * @param eTag        The current strong ETag of the resource
+     * @return Whether the client already has the current representation
+     */
+    public static boolean isNotModified(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EntityTagUtility() {
+        throw new IllegalStateException("Utility class");
+    }
+}
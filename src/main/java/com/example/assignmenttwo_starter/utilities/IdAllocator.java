@@ -0,0 +1,11 @@
+package com.example.assignmenttwo_starter.utilities;
+
+/**
+ * Hands out ids for new entities
+ */
+public interface IdAllocator {
+    /**
+     * @return An id that has not been handed out before
+     */
+    int nextId();
+}
@@ -0,0 +1,71 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.function.Supplier;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * A link to a controller method taking a single id, resolved through {@code linkTo(methodOn(...))} once
+ * and then expanded for each id by string concatenation.
+ * Building a link with a {@code methodOn} proxy per item costs a proxy, a method invocation and a mapping lookup each time,
+ * which adds up when every element of a list gets its own link.
+ * The links are the same as the ones {@code linkTo(methodOn(...))} builds, including the base URI of the current request.
+ */
+public class IdLinkTemplate {
+    private final Supplier<Object> invocation;
+    private volatile String[] pathParts;
+
+    /**
+     * @param invocation Invokes the controller method with a null id on a {@code methodOn} proxy,
+     *                   e.g. {@code () -> methodOn(CustomerRestController.class).getCustomerById(null, null)}
+     */
+    public IdLinkTemplate(Supplier<Object> invocation) {
+        this.invocation = invocation;
+    }
+
+    /**
+     * Gets the base URI links are built on for the current request, the same one {@code linkTo} uses.
+     * Get it once per request and pass it to {@link #expand(String, Integer, LinkRelation)} for each element.
+     *
+     * @return The scheme, host, port and servlet mapping of the current request
+     */
+    public static String getBaseUri() {
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString();
+    }
+
+    /**
+     * Expands the link for an id
+     *
+     * @param baseUri The base URI of the current request from {@link #getBaseUri()}
+     * @param id      The id
+     * @param rel     The relation of the link
+     * @return - Returns the link
+     */
+    public Link expand(String baseUri, Integer id, LinkRelation rel) {
+        String[] parts = getPathParts(baseUri);
+        return Link.of(baseUri + parts[0] + id + parts[1], rel);
+    }
+
+    /**
+     * @return The path of the link relative to the base URI, split around the id variable.
+     * It does not depend on the base URI, so it is resolved once.
+     */
+    private String[] getPathParts(String baseUri) {
+        String[] parts = pathParts;
+        if (parts == null) {
+            String href = linkTo(invocation.get()).withSelfRel().getHref();
+            int variableStart = href.indexOf('{');
+            int variableEnd = href.indexOf('}', variableStart);
+            if (!href.startsWith(baseUri) || variableStart < 0 || variableEnd < 0) {
+                throw new IllegalStateException("Not a link with a single id variable: " + href);
+            }
+            parts = new String[]{href.substring(baseUri.length(), variableStart), href.substring(variableEnd + 1)};
+            pathParts = parts;
+        }
+        return parts;
+    }
+}
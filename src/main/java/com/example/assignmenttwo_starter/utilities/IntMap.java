@@ -0,0 +1,73 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable map from int keys to values, stored as a sorted key array and a parallel value array.
+ * Lookups are a binary search over primitive ints, with no boxing and no hashing.
+ *
+ * @param <V> The type of the values
+ */
+public final class IntMap<V> {
+    private final int[] keys;
+    private final Object[] values;
+
+    private IntMap(int[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Creates a map of values by a key taken from each value
+     *
+     * @param values      The values
+     * @param keyFunction Gets the key of a value
+     * @return The map
+     * @throws IllegalArgumentException If two values have the same key
+     */
+    public static <V> IntMap<V> of(Collection<V> values, ToIntFunction<? super V> keyFunction) {
+        List<V> sortedValues = new ArrayList<>(values);
+        sortedValues.sort(Comparator.comparingInt(keyFunction));
+
+        int[] keys = new int[sortedValues.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyFunction.applyAsInt(sortedValues.get(i));
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                throw new IllegalArgumentException("Duplicate key " + keys[i]);
+            }
+        }
+        return new IntMap<>(keys, sortedValues.toArray());
+    }
+
+    /**
+     * @param key The key
+     * @return The value for the key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return Arrays.binarySearch(keys, key) >= 0;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return The values in key order
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        return (List<V>) Collections.unmodifiableList(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Stores rendered invoice PDFs in a local directory, one file per order named after the order id
+ * and the fingerprint it was rendered from (order-{id}-{fingerprint}.pdf).
+ * A stored invoice is only returned for the fingerprint it was rendered from.
+ */
+public class InvoiceStore {
+    private static final String PREFIX = "order-";
+    private static final String SUFFIX = ".pdf";
+
+    private final Path directory;
+
+    public InvoiceStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Reads a stored invoice
+     *
+     * @param orderId     The ID of the order
+     * @param fingerprint The fingerprint the invoice must have been rendered from
+     * @return The invoice bytes, or null if there is no invoice stored for this fingerprint
+     */
+    public byte[] read(Integer orderId, String fingerprint) {
+        try {
+            return Files.readAllBytes(getPath(orderId, fingerprint));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean contains(Integer orderId, String fingerprint) {
+        return Files.exists(getPath(orderId, fingerprint));
+    }
+
+    /**
+     * Stores an invoice, replacing any invoice stored for other fingerprints of the order.
+     * The file is written under a temporary name and then moved into place, so readers never see a partial file.
+     *
+     * @param orderId     The ID of the order
+     * @param fingerprint The fingerprint the invoice was rendered from
+     * @param content     The invoice bytes
+     */
+    public void write(Integer orderId, String fingerprint, byte[] content) throws IOException {
+        Path temporaryFile = Files.createTempFile(directory, PREFIX + orderId + "-", ".tmp");
+        try {
+            Files.write(temporaryFile, content);
+            Files.move(temporaryFile, getPath(orderId, fingerprint), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        deleteOtherVersions(orderId, fingerprint);
+    }
+
+    /**
+     * Deletes every stored invoice of an order
+     *
+     * @param orderId The ID of the order
+     */
+    public void delete(Integer orderId) throws IOException {
+        deleteOtherVersions(orderId, null);
+    }
+
+    /**
+     * Gets the ids of the orders that have a stored invoice
+     *
+     * @return The order ids
+     */
+    public Set<Integer> getOrderIds() throws IOException {
+        var orderIds = new HashSet<Integer>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(fileName -> fileName.startsWith(PREFIX) && fileName.endsWith(SUFFIX))
+                    .forEach(fileName -> orderIds.add(Integer.valueOf(fileName.substring(PREFIX.length(), fileName.indexOf('-', PREFIX.length())))));
+        }
+        return orderIds;
+    }
+
+    private void deleteOtherVersions(Integer orderId, String keepFingerprint) throws IOException {
+        Path keep = keepFingerprint == null ? null : getPath(orderId, keepFingerprint);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + orderId + "-*" + SUFFIX)) {
+            for (Path file : files) {
+                if (!file.equals(keep)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path getPath(Integer orderId, String fingerprint) {
+        return directory.resolve(PREFIX + orderId + "-" + fingerprint + SUFFIX);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * A page of keyset (seek) pagination on an integer id, read forward or backward from a {@link PageCursor},
+ * together with the cursors of the pages next to it
+ *
+ * @param content        The items of the page in ascending id order
+ * @param nextCursor     The cursor of the next page, or null if this is the last page
+ * @param previousCursor The cursor of the previous page, or null if this is the first page
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor, String previousCursor) {
+    /**
+     * The largest page the paginated endpoints return, larger page sizes are capped to it
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Reads a page
+     *
+     * @param cursor     The cursor of the page, or null for the first page
+     * @param after      Reads a slice of the items with an id greater than the given id, in ascending id order
+     * @param before     Reads a slice of the items with an id smaller than the given id, in descending id order
+     * @param idFunction Gets the id of an item
+     * @return The page
+     */
+    public static <T> KeysetPage<T> read(PageCursor cursor, IntFunction<Slice<T>> after, IntFunction<Slice<T>> before, ToIntFunction<T> idFunction) {
+        List<T> content;
+        boolean hasNext;
+        boolean hasPrevious;
+        if (cursor == null || !cursor.backward()) {
+            Slice<T> slice = after.apply(cursor == null ? Integer.MIN_VALUE : cursor.id());
+            content = slice.getContent();
+            hasNext = slice.hasNext();
+            hasPrevious = cursor != null;
+        } else {
+            Slice<T> slice = before.apply(cursor.id());
+            content = new ArrayList<>(slice.getContent());
+            Collections.reverse(content);
+            hasNext = true;
+            hasPrevious = slice.hasNext();
+        }
+
+        if (content.isEmpty()) {
+            return new KeysetPage<>(content, null, null);
+        }
+        return new KeysetPage<>(content,
+                hasNext ? PageCursor.after(idFunction.applyAsInt(content.get(content.size() - 1))).encode() : null,
+                hasPrevious ? PageCursor.before(idFunction.applyAsInt(content.get(0))).encode() : null);
+    }
+
+    /**
+     * Wraps the page in a collection with self, first, next and prev links
+     *
+     * @param cursor The encoded cursor the page was requested with, or null for the first page
+     * @param linkTo Builds the link to the endpoint for an encoded cursor (null for the first page),
+     *               e.g. {@code c -> linkTo(methodOn(getClass()).getCustomersBySeek(c, pageSize, count))}
+     * @return The collection
+     */
+    public CollectionModel<T> toCollectionModel(String cursor, Function<String, WebMvcLinkBuilder> linkTo) {
+        CollectionModel<T> collectionModel = CollectionModel.of(content, linkTo.apply(cursor).withSelfRel().expand());
+        collectionModel.add(linkTo.apply(null).withRel(IanaLinkRelations.FIRST).expand());
+        if (nextCursor != null) {
+            collectionModel.add(linkTo.apply(nextCursor).withRel(IanaLinkRelations.NEXT).expand());
+        }
+        if (previousCursor != null) {
+            collectionModel.add(linkTo.apply(previousCursor).withRel(IanaLinkRelations.PREV).expand());
+        }
+        return collectionModel;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
+import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderItem;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+public class OrderFingerprintUtility {
+    /**
+     * Creates a fingerprint of everything that is printed on the invoice of an order:
+     * the order itself, its customer name, its status and each of its items with their product.
+     * Any change to one of these produces a different fingerprint.
+     *
+     * @param order   The order to fingerprint
+     * @param catalog The catalog the invoice reads product and category names from
+     * @return A hex encoded SHA-256 hash of the invoice data
+     */
+    public static String getFingerprint(Order order, CatalogSnapshot catalog) {
+        var builder = new StringBuilder(256);
+        builder.append(order.getId())
+                .append('|').append(order.getOrderDate() == null ? null : order.getOrderDate().getTime())
+                .append('|').append(order.getTotal())
+                .append('|').append(order.getOrderStatus().getId())
+                .append('|').append(order.getOrderStatus().getName());
+        if (order.getCustomer() != null) {
+            builder.append('|').append(order.getCustomer().getFirstName())
+                    .append('|').append(order.getCustomer().getLastName());
+        }
+        if (order.getOrderItems() != null) {
+            for (OrderItem orderItem : order.getOrderItems()) {
+                CatalogSnapshot.ProductEntry product = catalog.getProduct(orderItem.getProduct());
+                builder.append("|item:").append(orderItem.getId())
+                        .append('|').append(orderItem.getQuantity())
+                        .append('|').append(orderItem.getPrice())
+                        .append('|').append(product.id())
+                        .append('|').append(product.name())
+                        .append('|').append(product.image())
+                        .append('|').append(product.categoryName());
+            }
+        }
+        return sha256(builder.toString());
+    }
+
+    /**
+     * Creates a fingerprint of the representation of a customer or an order: the version of the entity, the version of each order
+     * and each order item with the catalog names of its product. The items and the catalog are not versioned themselves,
+     * so unlike the version alone the fingerprint also changes when an item is added, changed or removed, or a product is renamed.
+     *
+     * @param rows    The orders and items, in order id then item id order, see {@link #getOrderItemVersions(Customer)}
+     * @param catalog The catalog the representation reads product and category names from
+     * @return A hex encoded SHA-256 hash of the rows
+     */
+    public static String getFingerprint(List<OrderItemVersion> rows, CatalogSnapshot catalog) {
+        var builder = new StringBuilder(64 + 64 * rows.size());
+        builder.append(rows.isEmpty() ? null : rows.get(0).rootVersion());
+        for (OrderItemVersion row : rows) {
+            builder.append("|order:").append(row.orderId())
+                    .append('|').append(row.orderVersion())
+                    .append('|').append(row.itemId())
+                    .append('|').append(row.quantity())
+                    .append('|').append(row.price())
+                    .append('|').append(row.productId());
+            CatalogSnapshot.ProductEntry product = row.productId() == null ? null : catalog.getProduct(row.productId());
+            if (product != null) {
+                builder.append('|').append(product.name())
+                        .append('|').append(product.categoryName());
+            }
+        }
+        return sha256(builder.toString());
+    }
+
+    /**
+     * @return The rows {@link #getFingerprint(List, CatalogSnapshot)} reads for a loaded customer, the same as the repository query returns
+     */
+    public static List<OrderItemVersion> getOrderItemVersions(Customer customer) {
+        var rows = new ArrayList<OrderItemVersion>();
+        List<Order> orders = customer.getOrders() == null ? List.of() : customer.getOrders().stream()
+                .sorted(Comparator.comparing(Order::getId))
+                .toList();
+        for (Order order : orders) {
+            addOrderItemVersions(rows, customer.getVersion(), order);
+        }
+        if (rows.isEmpty()) {
+            rows.add(new OrderItemVersion(customer.getVersion(), null, null, null, null, null, null));
+        }
+        return rows;
+    }
+
+    /**
+     * @return The rows {@link #getFingerprint(List, CatalogSnapshot)} reads for a loaded order, the same as the repository query returns
+     */
+    public static List<OrderItemVersion> getOrderItemVersions(Order order) {
+        var rows = new ArrayList<OrderItemVersion>();
+        addOrderItemVersions(rows, order.getVersion(), order);
+        return rows;
+    }
+
+    private static void addOrderItemVersions(List<OrderItemVersion> rows, Long rootVersion, Order order) {
+        List<OrderItem> orderItems = order.getOrderItems() == null ? List.of() : order.getOrderItems().stream()
+                .sorted(Comparator.comparing(OrderItem::getId))
+                .toList();
+        if (orderItems.isEmpty()) {
+            rows.add(new OrderItemVersion(rootVersion, order.getId(), order.getVersion(), null, null, null, null));
+        }
+        for (OrderItem orderItem : orderItems) {
+            rows.add(new OrderItemVersion(rootVersion, order.getId(), order.getVersion(), orderItem.getId(), orderItem.getQuantity(),
+                    orderItem.getPrice(), orderItem.getProduct() == null ? null : orderItem.getProduct().getId()));
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private OrderFingerprintUtility() {
+        throw new IllegalStateException("Utility class");
+    }
+}
@@ -1,25 +1,39 @@
 package com.example.assignmenttwo_starter.utilities;
 
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
 import com.example.assignmenttwo_starter.model.Order;
 import com.example.assignmenttwo_starter.model.OrderItem;
-import com.example.assignmenttwo_starter.model.Product;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPHeaderCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
-import org.springframework.core.io.ClassPathResource;
 
 import java.io.IOException;
 import java.io.OutputStream;
 
 public class OrderPdfBuilder {
     private final Order order;
-    private final String productsDirectoryPath;
+    private final ProductImageRegistry productImageRegistry;
+    private final CatalogSnapshot catalog;
 
     public OrderPdfBuilder(Order order, String productsDirectoryPath) {
+        this(order, new ProductImageRegistry(productsDirectoryPath));
+    }
+
+    public OrderPdfBuilder(Order order, ProductImageRegistry productImageRegistry) {
+        this(order, productImageRegistry, CatalogSnapshot.current());
+    }
+
+    /**
+     * @param order                the order to build the invoice for
+     * @param productImageRegistry the registry to get the product images from
+     * @param catalog              the catalog to read product and category names from, so products are not loaded from the database
+     */
+    public OrderPdfBuilder(Order order, ProductImageRegistry productImageRegistry, CatalogSnapshot catalog) {
         this.order = order;
-        this.productsDirectoryPath = productsDirectoryPath;
+        this.productImageRegistry = productImageRegistry;
+        this.catalog = catalog;
     }
     // Instance methods
     public void generatePdfReport(OutputStream outputStream) throws DocumentException, IOException {
@@ -27,7 +41,7 @@ public class OrderPdfBuilder {
         PdfWriter.getInstance(document, outputStream);
         document.open();
         document.add(getHeaderParagraph(order));
-        document.add(getOrderItemsTable(order, productsDirectoryPath));
+        document.add(getOrderItemsTable(order, productImageRegistry, catalog));
         document.add(getFooterParagraph(order));
         document.close();
     }
@@ -38,12 +52,14 @@ public class OrderPdfBuilder {
      *
      * @param table                 the table to add the cells to
      * @param orderItem             the order item to get the data from
-     * @param productsDirectoryPath the path to the directory where the product images are stored
+     * @param productImageRegistry  the registry to get the product images from
+     * @param catalog               the catalog to get the product and category names from
      */
-    public static void addCellsForOrderItemToTable(PdfPTable table, OrderItem orderItem, String productsDirectoryPath) throws BadElementException, IOException {
-        table.addCell(getCell(orderItem.getProduct().getCategory().getName(), Element.ALIGN_LEFT));
-        table.addCell(new PdfPCell(getProductImage(orderItem.getProduct(), productsDirectoryPath)));
-        table.addCell(getCell(orderItem.getProduct().getName(), Element.ALIGN_LEFT));
+    public static void addCellsForOrderItemToTable(PdfPTable table, OrderItem orderItem, ProductImageRegistry productImageRegistry, CatalogSnapshot catalog) throws BadElementException, IOException {
+        CatalogSnapshot.ProductEntry product = catalog.getProduct(orderItem.getProduct());
+        table.addCell(getCell(product.categoryName(), Element.ALIGN_LEFT));
+        table.addCell(new PdfPCell(productImageRegistry.getImage(product.image())));
+        table.addCell(getCell(product.name(), Element.ALIGN_LEFT));
         table.addCell(getCell(orderItem.getQuantity().toString(), Element.ALIGN_RIGHT));
         table.addCell(getCell(orderItem.getPrice().toString(), Element.ALIGN_RIGHT));
     }
@@ -117,27 +133,14 @@ public class OrderPdfBuilder {
         return headerParagraph;
     }
 
-    public static PdfPTable getOrderItemsTable(Order order, String productsDirectoryPath) throws BadElementException, IOException {
+    public static PdfPTable getOrderItemsTable(Order order, ProductImageRegistry productImageRegistry, CatalogSnapshot catalog) throws BadElementException, IOException {
         var table = new PdfPTable(5);
 
         addHeaderCellsToTable(table);
 
         for (OrderItem orderItem : order.getOrderItems()) {
-            addCellsForOrderItemToTable(table, orderItem, productsDirectoryPath);
+            addCellsForOrderItemToTable(table, orderItem, productImageRegistry, catalog);
         }
         return table;
     }
-
-    private static Image getProductImage(Product product, String productsDirectoryPath) throws IOException, BadElementException {
-        String path = productsDirectoryPath + product.getImage();
-        ClassPathResource resource = new ClassPathResource(path);
-        return getImage(resource);
-    }
-
-    private static Image getImage(ClassPathResource resource) throws IOException, BadElementException {
-        Image image = Image.getInstance(resource.getURL());
-        image.scalePercent(50, 50);
-        image.setAlignment(Element.ALIGN_RIGHT);
-        return image;
-    }
 }
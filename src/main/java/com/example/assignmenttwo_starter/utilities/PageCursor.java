@@ -0,0 +1,52 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * An opaque cursor for keyset (seek) pagination on an integer primary key.
+ * A cursor points either at the page after an id or at the page before an id.
+ *
+ * @param backward true for the page before the id, false for the page after it
+ * @param id       the id the page starts after (or ends before)
+ */
+public record PageCursor(boolean backward, int id) {
+    private static final String AFTER = "a";
+    private static final String BEFORE = "b";
+
+    public static PageCursor after(int id) {
+        return new PageCursor(false, id);
+    }
+
+    public static PageCursor before(int id) {
+        return new PageCursor(true, id);
+    }
+
+    /**
+     * Decodes a cursor from its opaque string form
+     *
+     * @param cursor The encoded cursor, or null/blank for the first page
+     * @return The cursor, or null for the first page
+     * @throws IllegalArgumentException If the cursor is not valid
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String direction = value.substring(0, separator);
+        if (!AFTER.equals(direction) && !BEFORE.equals(direction)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PageCursor(BEFORE.equals(direction), Integer.parseInt(value.substring(separator + 1)));
+    }
+
+    public String encode() {
+        String value = (backward ? BEFORE : AFTER) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.itextpdf.text.BadElementException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Image;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Loads, decodes and scales each product image once and hands out copies of it.
+ * The copies share the decoded image data and its serial id, so a PDF that shows the same
+ * product on several rows only writes the image into the document once.
+ */
+public class ProductImageRegistry {
+    public static final String NO_IMAGE = "no-image.JPG";
+
+    private final String productsDirectoryPath;
+    private final ConcurrentMap<String, Image> images = new ConcurrentHashMap<>();
+
+    public ProductImageRegistry(String productsDirectoryPath) {
+        this.productsDirectoryPath = productsDirectoryPath;
+    }
+
+    /**
+     * Gets an image from the products directory, falling back to the "no image" image if it does not exist
+     *
+     * @param imageName The file name of the image
+     * @return A scaled and aligned copy of the image
+     */
+    public Image getImage(String imageName) throws IOException, BadElementException {
+        String name = imageName == null || imageName.isBlank() ? NO_IMAGE : imageName;
+        Image image = images.get(name);
+        if (image == null) {
+            image = loadImage(name);
+            Image existing = images.putIfAbsent(name, image);
+            if (existing != null) {
+                image = existing;
+            }
+        }
+        return Image.getInstance(image);
+    }
+
+    /**
+     * Loads the given images so later renders do not have to
+     *
+     * @param imageNames The file names of the images to load
+     */
+    public void preload(Collection<String> imageNames) throws IOException, BadElementException {
+        for (String imageName : imageNames) {
+            getImage(imageName);
+        }
+    }
+
+    public int size() {
+        return images.size();
+    }
+
+    private Image loadImage(String imageName) throws IOException, BadElementException {
+        ClassPathResource resource = new ClassPathResource(productsDirectoryPath + imageName);
+        if (!resource.exists()) {
+            if (NO_IMAGE.equals(imageName)) {
+                throw new IOException("Missing fallback image " + productsDirectoryPath + NO_IMAGE);
+            }
+            return getImage(NO_IMAGE);
+        }
+
+        Image image;
+        try (InputStream inputStream = resource.getInputStream()) {
+            image = Image.getInstance(inputStream.readAllBytes());
+        }
+        image.scalePercent(50, 50);
+        image.setAlignment(Element.ALIGN_RIGHT);
+        return image;
+    }
+}
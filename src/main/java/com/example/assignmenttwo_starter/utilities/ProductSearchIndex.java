@@ -0,0 +1,225 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.example.assignmenttwo_starter.model.CatalogSnapshot.ProductEntry;
+import com.example.assignmenttwo_starter.model.ProductIndexStatistics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index over the names and descriptions of products.
+ * Every term maps to a posting list of the products containing it, kept as sorted parallel int arrays of product ids and weights;
+ * terms are kept sorted, so a prefix matches a contiguous range of them.
+ * Products are added, replaced and removed one at a time, touching only the posting lists of their own terms.
+ * Not thread safe.
+ */
+public class ProductSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private final Map<Integer, ProductEntry> products = new HashMap<>();
+    private final NavigableMap<String, Postings> postingsByTerm = new TreeMap<>();
+
+    /**
+     * A product matching a search
+     *
+     * @param product The product
+     * @param score   How well it matches, higher is better. 0 when there were no search terms.
+     */
+    public record Hit(ProductEntry product, double score) {
+    }
+
+    /**
+     * Splits text into lower case terms of letters and digits
+     *
+     * @param text The text, may be null
+     * @return The distinct terms in the order they first appear
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text != null) {
+            for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    terms.add(token);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Adds a product, replacing the previous version of it
+     *
+     * @param product The product
+     */
+    public void put(ProductEntry product) {
+        remove(product.id());
+        products.put(product.id(), product);
+        getWeights(product).forEach((term, weight) -> postingsByTerm.computeIfAbsent(term, key -> new Postings()).put(product.id(), weight));
+    }
+
+    /**
+     * Removes a product
+     *
+     * @param productId The ID of the product
+     */
+    public void remove(int productId) {
+        ProductEntry previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : getWeights(previous).keySet()) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(productId);
+            if (postings.size == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+    }
+
+    public ProductEntry get(int productId) {
+        return products.get(productId);
+    }
+
+    /**
+     * Finds the products matching every term of a query, each term matching a whole term of the product or its start.
+     * Products are ranked by the sum over the query terms of the weight of the best matching product term,
+     * where a term in the name weighs more than one in the description, a whole term more than a prefix, and a rare term more than a common one.
+     *
+     * @param query      The search text, or null or blank for every product
+     * @param categoryId Only return products of this category, or null for any
+     * @param minPrice   Only return products costing at least this, or null for no lower bound
+     * @param maxPrice   Only return products costing at most this, or null for no upper bound
+     * @return The matching products, best match first, then by id
+     */
+    public List<Hit> search(String query, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        Map<Integer, Double> scores = null;
+        for (String queryTerm : tokenize(query)) {
+            Map<Integer, Double> previousScores = scores;
+            Map<Integer, Double> termScores = new HashMap<>();
+            for (Map.Entry<String, Postings> match : postingsByTerm.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                Postings postings = match.getValue();
+                double factor = Math.log(1 + (double) products.size() / postings.size)
+                        * (match.getKey().length() == queryTerm.length() ? 1 : PREFIX_MATCH_FACTOR);
+                for (int i = 0; i < postings.size; i++) {
+                    if (previousScores == null || previousScores.containsKey(postings.productIds[i])) {
+                        termScores.merge(postings.productIds[i], postings.weights[i] * factor, Math::max);
+                    }
+                }
+            }
+            if (previousScores != null) {
+                termScores.replaceAll((productId, score) -> score + previousScores.get(productId));
+            }
+            scores = termScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        var hits = new ArrayList<Hit>();
+        if (scores == null) {
+            for (ProductEntry product : products.values()) {
+                if (matches(product, categoryId, minPrice, maxPrice)) {
+                    hits.add(new Hit(product, 0));
+                }
+            }
+        } else {
+            scores.forEach((productId, score) -> {
+                ProductEntry product = products.get(productId);
+                if (matches(product, categoryId, minPrice, maxPrice)) {
+                    hits.add(new Hit(product, score));
+                }
+            });
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingInt(hit -> hit.product().id()));
+        return hits;
+    }
+
+    /**
+     * @return The size of the index. The byte estimate assumes compressed object pointers and Latin-1 terms.
+     */
+    public ProductIndexStatistics getStatistics() {
+        long postings = 0;
+        long estimatedBytes = 0;
+        for (Map.Entry<String, Postings> entry : postingsByTerm.entrySet()) {
+            postings += entry.getValue().size;
+            // TreeMap entry, the term string with its byte array, the posting list object and its two int arrays
+            estimatedBytes += 40 + 24 + 16 + entry.getKey().length() + 24 + 2 * (16 + 4L * entry.getValue().productIds.length);
+        }
+        return new ProductIndexStatistics(products.size(), postingsByTerm.size(), postings, estimatedBytes);
+    }
+
+    private static boolean matches(ProductEntry product, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (categoryId != null && product.categoryId() != categoryId) {
+            return false;
+        }
+        if (minPrice != null && (product.price() == null || product.price().compareTo(minPrice) < 0)) {
+            return false;
+        }
+        return maxPrice == null || (product.price() != null && product.price().compareTo(maxPrice) <= 0);
+    }
+
+    /**
+     * @return The weight of each term of the product: what it weighs in the name plus what it weighs in the description
+     */
+    private static Map<String, Integer> getWeights(ProductEntry product) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(product.name())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(product.description())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    /**
+     * The products containing a term, sorted by id
+     */
+    private static class Postings {
+        private int[] productIds = new int[2];
+        private int[] weights = new int[2];
+        private int size;
+
+        private void put(int productId, int weight) {
+            int index = Arrays.binarySearch(productIds, 0, size, productId);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+            index = -index - 1;
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(productIds, index, productIds, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            productIds[index] = productId;
+            weights[index] = weight;
+            size++;
+        }
+
+        private void remove(int productId) {
+            int index = Arrays.binarySearch(productIds, 0, size, productId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(productIds, index + 1, productIds, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.itextpdf.text.*;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Builds a printable sheet of labelled QR codes, laid out in a grid over as many pages as needed
+ */
+public class QrCodeSheetPdfBuilder {
+    private static final int COLUMNS = 3;
+    private static final float QR_CODE_SIZE = 150;
+
+    private final String title;
+    private final List<String> labels;
+    private final List<byte[]> qrCodePngs;
+
+    /**
+     * @param title      the title printed above the grid
+     * @param labels     the label printed under each QR code
+     * @param qrCodePngs the QR codes as PNG bytes, in the same order as the labels
+     */
+    public QrCodeSheetPdfBuilder(String title, List<String> labels, List<byte[]> qrCodePngs) {
+        this.title = title;
+        this.labels = labels;
+        this.qrCodePngs = qrCodePngs;
+    }
+
+    // Instance methods
+    public void generatePdfReport(OutputStream outputStream) throws DocumentException, IOException {
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, outputStream);
+        document.open();
+        document.add(new Paragraph(title));
+        document.add(new Paragraph(" "));
+
+        var table = new PdfPTable(COLUMNS);
+        table.setWidthPercentage(100);
+        for (int i = 0; i < labels.size(); i++) {
+            table.addCell(getQrCodeCell(labels.get(i), qrCodePngs.get(i)));
+        }
+        table.completeRow();
+
+        document.add(table);
+        document.close();
+    }
+
+    // Static methods
+    /**
+     * Returns a cell with the QR code scaled to fit and the label under it
+     *
+     * @param label     the label to print under the QR code
+     * @param qrCodePng the QR code as PNG bytes
+     * @return a cell with the QR code and the label
+     */
+    public static PdfPCell getQrCodeCell(String label, byte[] qrCodePng) throws BadElementException, IOException {
+        Image image = Image.getInstance(qrCodePng);
+        image.scaleToFit(QR_CODE_SIZE, QR_CODE_SIZE);
+        image.setAlignment(Element.ALIGN_CENTER);
+
+        var paragraph = new Paragraph(label);
+        paragraph.setAlignment(Element.ALIGN_CENTER);
+
+        var cell = new PdfPCell();
+        cell.setUseAscender(true);
+        cell.setUseDescender(true);
+        cell.setPadding(8);
+        cell.addElement(image);
+        cell.addElement(paragraph);
+        return cell;
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.assignmenttwo_starter.utilities;
 
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
 import net.glxn.qrgen.javase.QRCode;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 public class QrCodeUtility {
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
     public static BufferedImage getQrCodeImage(String text, int pixelLength) throws IOException {
         ByteArrayOutputStream stream = QRCode
                 .from(text)
@@ -18,6 +30,80 @@ public class QrCodeUtility {
         return ImageIO.read(new ByteArrayInputStream(stream.toByteArray()));
     }
 
+    /**
+     * Gets a QR code as PNG bytes, encoded straight from the QR matrix as a 1-bit greyscale PNG.
+     * This produces the same image as {@link #getQrCodeImage(String, int)} without going through a BufferedImage
+     * and an image codec.
+     *
+     * @param text        The text to encode
+     * @param pixelLength The width and height of the image in pixels
+     * @return The PNG bytes
+     */
+    public static byte[] getQrCodePng(String text, int pixelLength) throws IOException {
+        try {
+            BitMatrix matrix = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, pixelLength, pixelLength);
+            return toPng(matrix);
+        } catch (WriterException e) {
+            throw new IOException("Failed to encode QR code", e);
+        }
+    }
+
+    /**
+     * Encodes a matrix as a 1-bit greyscale PNG, set bits black and unset bits white
+     *
+     * @param matrix The matrix to encode
+     * @return The PNG bytes
+     */
+    public static byte[] toPng(BitMatrix matrix) throws IOException {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowLength = (width + 7) / 8;
+
+        var imageData = new ByteArrayOutputStream(rowLength * height / 8 + 64);
+        try (var deflaterOutputStream = new DeflaterOutputStream(imageData, new Deflater(Deflater.BEST_SPEED))) {
+            byte[] row = new byte[rowLength + 1];
+            for (int y = 0; y < height; y++) {
+                // row[0] is the filter type, 0 = none
+                Arrays.fill(row, 1, row.length, (byte) 0xFF);
+                for (int x = 0; x < width; x++) {
+                    if (matrix.get(x, y)) {
+                        row[1 + (x >> 3)] &= (byte) ~(0x80 >> (x & 7));
+                    }
+                }
+                deflaterOutputStream.write(row);
+            }
+        }
+
+        var png = new ByteArrayOutputStream(imageData.size() + 64);
+        var output = new DataOutputStream(png);
+        output.write(PNG_SIGNATURE);
+
+        var header = new ByteArrayOutputStream(13);
+        var headerOutput = new DataOutputStream(header);
+        headerOutput.writeInt(width);
+        headerOutput.writeInt(height);
+        headerOutput.writeByte(1); // bit depth
+        headerOutput.writeByte(0); // colour type, greyscale
+        headerOutput.writeByte(0); // compression method
+        headerOutput.writeByte(0); // filter method
+        headerOutput.writeByte(0); // interlace method
+        writePngChunk(output, "IHDR", header.toByteArray());
+        writePngChunk(output, "IDAT", imageData.toByteArray());
+        writePngChunk(output, "IEND", new byte[0]);
+        return png.toByteArray();
+    }
+
+    private static void writePngChunk(DataOutputStream output, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        var crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        output.writeInt(data.length);
+        output.write(typeBytes);
+        output.write(data);
+        output.writeInt((int) crc.getValue());
+    }
 
     private QrCodeUtility() {
         throw new IllegalStateException("Utility class");
@@ -0,0 +1,133 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Running sales totals per day and per product, kept together with what each order contributed to them,
+ * so a changed order can be taken out of the totals and put back in without reading any other order.
+ * Not thread safe.
+ */
+public class SalesAggregates {
+    private final Map<Integer, OrderSales> ordersById = new HashMap<>();
+    private final Map<LocalDate, Totals> days = new HashMap<>();
+    private final Map<Integer, Totals> products = new HashMap<>();
+    private final Totals overall = new Totals();
+
+    /**
+     * What one order contributes to the totals
+     *
+     * @param date  The day the order was placed, or null if it has no date
+     * @param total The total of the order
+     * @param lines The items of the order
+     */
+    public record OrderSales(LocalDate date, BigDecimal total, List<LineSales> lines) {
+    }
+
+    /**
+     * @param productId The ID of the product
+     * @param units     The quantity
+     * @param revenue   The price of the item, i.e. the unit price times the quantity
+     */
+    public record LineSales(int productId, long units, BigDecimal revenue) {
+    }
+
+    /**
+     * Totals of a day, a product or all orders. The count is of orders for days and overall, and of order items for products.
+     */
+    public static class Totals {
+        private long count;
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public BigDecimal getRevenue() {
+            return revenue;
+        }
+
+        private void add(int sign, long units, BigDecimal revenue) {
+            this.count += sign;
+            this.units += sign * units;
+            if (revenue != null) {
+                this.revenue = sign > 0 ? this.revenue.add(revenue) : this.revenue.subtract(revenue);
+            }
+        }
+
+        private void addAll(Totals other) {
+            count += other.count;
+            units += other.units;
+            revenue = revenue.add(other.revenue);
+        }
+    }
+
+    /**
+     * Sets what an order contributes, replacing what it contributed before
+     *
+     * @param orderId The ID of the order
+     * @param sales   What the order contributes, or null if it no longer contributes (removed or cancelled)
+     */
+    public void put(int orderId, OrderSales sales) {
+        OrderSales previous = sales != null ? ordersById.put(orderId, sales) : ordersById.remove(orderId);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        if (sales != null) {
+            apply(sales, 1);
+        }
+    }
+
+    /**
+     * Adds the totals of aggregates over other orders to these
+     *
+     * @param other Aggregates that have none of the orders of these
+     */
+    public void putAll(SalesAggregates other) {
+        ordersById.putAll(other.ordersById);
+        other.days.forEach((date, totals) -> days.computeIfAbsent(date, key -> new Totals()).addAll(totals));
+        other.products.forEach((productId, totals) -> products.computeIfAbsent(productId, key -> new Totals()).addAll(totals));
+        overall.addAll(other.overall);
+    }
+
+    public Map<LocalDate, Totals> getDays() {
+        return Collections.unmodifiableMap(days);
+    }
+
+    public Map<Integer, Totals> getProducts() {
+        return Collections.unmodifiableMap(products);
+    }
+
+    public Totals getOverall() {
+        return overall;
+    }
+
+    private void apply(OrderSales sales, int sign) {
+        long units = 0;
+        for (LineSales line : sales.lines()) {
+            units += line.units();
+            Totals product = products.computeIfAbsent(line.productId(), key -> new Totals());
+            product.add(sign, line.units(), line.revenue());
+            if (product.count == 0) {
+                products.remove(line.productId());
+            }
+        }
+        if (sales.date() != null) {
+            Totals day = days.computeIfAbsent(sales.date(), key -> new Totals());
+            day.add(sign, units, sales.total());
+            if (day.count == 0) {
+                days.remove(sales.date());
+            }
+        }
+        overall.add(sign, units, sales.total());
+    }
+}
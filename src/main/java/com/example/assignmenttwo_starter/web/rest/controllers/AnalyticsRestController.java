@@ -0,0 +1,87 @@
+package com.example.assignmenttwo_starter.web.rest.controllers;
+
+import com.example.assignmenttwo_starter.model.CategorySales;
+import com.example.assignmenttwo_starter.model.DailySales;
+import com.example.assignmenttwo_starter.model.ProductSales;
+import com.example.assignmenttwo_starter.model.SalesRebuildResult;
+import com.example.assignmenttwo_starter.model.SalesSummary;
+import com.example.assignmenttwo_starter.services.SalesAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
+
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsRestController {
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    /**
+     * Get the number of orders, revenue, average order value and units sold over all orders that are not cancelled
+     *
+     * @return - Returns the sales summary
+     */
+    @GetMapping(value = "/summary", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get the sales summary")
+    public SalesSummary getSummary() {
+        return salesAnalyticsService.getSummary();
+    }
+
+    /**
+     * Get the number of orders, revenue, average order value and units sold per day
+     *
+     * @param from - The first day (inclusive), e.g. 2022-09-01
+     * @param to   - The last day (inclusive)
+     * @return - Returns the sales of each day with orders, by date
+     */
+    @GetMapping(value = "/revenue/daily", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get sales per day")
+    public ResponseEntity<List<DailySales>> getDailySales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(salesAnalyticsService.getDailySales(from, to));
+    }
+
+    /**
+     * Get the units sold and revenue per product
+     *
+     * @return - Returns the sales of each product sold, highest revenue first
+     */
+    @GetMapping(value = "/revenue/products", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get sales per product")
+    public List<ProductSales> getProductSales() {
+        return salesAnalyticsService.getProductSales();
+    }
+
+    /**
+     * Get the units sold and revenue per category
+     *
+     * @return - Returns the sales of each category with products sold, highest revenue first
+     */
+    @GetMapping(value = "/revenue/categories", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get sales per category")
+    public List<CategorySales> getCategorySales() {
+        return salesAnalyticsService.getCategorySales();
+    }
+
+    /**
+     * Recompute the sales figures from all orders, e.g. after orders were changed directly in the database
+     *
+     * @return - Returns the number of orders counted and how long the rebuild took
+     */
+    @PostMapping(value = "/rebuild", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Rebuild the sales figures")
+    public SalesRebuildResult rebuild() {
+        return salesAnalyticsService.rebuild();
+    }
+}
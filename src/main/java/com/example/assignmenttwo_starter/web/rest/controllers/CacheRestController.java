@@ -0,0 +1,43 @@
+package com.example.assignmenttwo_starter.web.rest.controllers;
+
+import com.example.assignmenttwo_starter.model.CacheRegionStatistics;
+import com.example.assignmenttwo_starter.services.CacheStatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheRestController {
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * Get the hit and miss counts of each second-level cache region
+     *
+     * @return - Returns the statistics of every region, ordered by region name
+     */
+    @GetMapping(value = "/statistics", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get second-level cache statistics per region")
+    public List<CacheRegionStatistics> getCacheStatistics() {
+        return cacheStatisticsService.getRegionStatistics();
+    }
+
+    /**
+     * Reset the second-level cache statistics
+     *
+     * @return - Returns no content
+     */
+    @DeleteMapping(value = "/statistics")
+    @Operation(summary = "Reset second-level cache statistics")
+    public ResponseEntity<Void> clearCacheStatistics() {
+        cacheStatisticsService.clearStatistics();
+        return ResponseEntity.noContent().build();
+    }
+}
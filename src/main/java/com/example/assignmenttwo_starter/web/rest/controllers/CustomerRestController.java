@@ -1,43 +1,81 @@
 package com.example.assignmenttwo_starter.web.rest.controllers;
 
+import com.example.assignmenttwo_starter.model.BatchModel;
 import com.example.assignmenttwo_starter.model.Customer;
+import com.example.assignmenttwo_starter.model.CustomerImportResult;
 import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
+import com.example.assignmenttwo_starter.services.CustomerImportService;
 import com.example.assignmenttwo_starter.services.CustomerService;
+import com.example.assignmenttwo_starter.services.CustomerStatementService;
+import com.example.assignmenttwo_starter.services.ExportService;
+import com.example.assignmenttwo_starter.services.OrderService;
+import com.example.assignmenttwo_starter.utilities.EntityTagUtility;
+import com.example.assignmenttwo_starter.utilities.IdLinkTemplate;
+import com.example.assignmenttwo_starter.utilities.KeysetPage;
+import com.example.assignmenttwo_starter.utilities.PageCursor;
+import com.itextpdf.text.DocumentException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
 @RequestMapping("/customers")
 public class CustomerRestController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final LinkRelation ADDITIONAL_ORDERS = LinkRelation.of("Additional Orders");
+    private static final IdLinkTemplate ORDERS_LINK = new IdLinkTemplate(() -> methodOn(CustomerRestController.class).getCustomerAssociatedOrdersByCustomerId(null));
+    private static final IdLinkTemplate SELF_LINK = new IdLinkTemplate(() -> methodOn(CustomerRestController.class).getCustomerById(null, null));
+
     @Autowired
     private CustomerService customerService;
     @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private CustomerStatementService customerStatementService;
+    @Autowired
+    private CustomerImportService customerImportService;
+    @Autowired
     private PagedResourcesAssembler<Customer> pagedResourcesAssembler;
+    @Value("${batch.max-ids:1000}")
+    private int maxBatchIds;
 
     /**
      * Create a new customer
@@ -45,7 +83,7 @@ public class CustomerRestController {
      * @param newCustomer - Customer object to be created
      * @return - Returns the customer object created. If an error occurs, return a bad request
      */
-    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     public ResponseEntity<Customer> createCustomer(@Valid @RequestBody Customer newCustomer) {
         try {
             Customer customer = customerService.createCustomer(newCustomer);
@@ -55,6 +93,23 @@ public class CustomerRestController {
         }
     }
 
+    /**
+     * Import customers in bulk. Rows are validated and inserted in batches while the body is still being read,
+     * and a rejected row does not stop the rest of the import.
+     *
+     * @param contentType text/csv with a header row naming the customer properties, or application/x-ndjson with one customer per line
+     * @param inputStream The rows to import
+     * @return - Returns the number of imported and rejected rows, with the row number and reason of each rejected row
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Import customers in bulk from CSV or NDJSON")
+    public ResponseEntity<CustomerImportResult> importCustomers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream inputStream) throws IOException {
+        if (MediaType.parseMediaType(TEXT_CSV_VALUE).isCompatibleWith(contentType)) {
+            return ResponseEntity.ok(customerImportService.importCsv(inputStream));
+        }
+        return ResponseEntity.ok(customerImportService.importNdjson(inputStream));
+    }
+
     /**
      * Delete a customer
      *
@@ -82,34 +137,42 @@ public class CustomerRestController {
     }
 
     /**
-     * Get a customer by id
+     * Get the orders of a customer
      *
-     * @param customerId The ID of the customer to be retrieved
-     * @return - Returns the customer for the specified ID. If a customer with the specified id is not found, return a not found response
+     * @param customerId The ID of the customer whose orders are to be retrieved
+     * @return - Returns the orders of the customer with the specified ID. If a customer with the specified id is not found, return a not found response
      */
-    @GetMapping(value = "/{customerId}/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @GetMapping(value = "/{customerId}/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get a customer by id")
     public CollectionModel<Order> getCustomerAssociatedOrdersByCustomerId(@PathVariable("customerId") Integer customerId) {
-        Optional<Customer> customerOptional = customerService.findById(customerId);
-
-        if (customerOptional.isEmpty()) {
+        if (!customerService.existsById(customerId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
         }
 
-        Customer customer = customerOptional.get();
-        return CollectionModel.of(customer.getOrders());
+        return CollectionModel.of(orderService.findAllByCustomerId(customerId));
     }
 
     /**
      * Get a customer by id
      *
      * @param customerId The ID of the customer to be retrieved
-     * @return - Returns the customer for the specified ID. If a customer with the specified id is not found, return a not found response
+     * @param webRequest The current request, used for the conditional (If-None-Match) check
+     * @return - Returns the customer for the specified ID with an ETag made from the versions of the customer, their orders and the order items,
+     * for the negotiated media type. If the ETag matches If-None-Match, return not modified without loading the customer. If a customer with the specified id is not found, return a not found response
      */
-    @GetMapping(value = "/{customerId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @GetMapping(value = "/{customerId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get a customer by id")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable("customerId") Integer customerId) {
-        Optional<Customer> customerOptional = customerService.findById(customerId);
+    public ResponseEntity<Customer> getCustomerById(@PathVariable("customerId") Integer customerId, WebRequest webRequest) {
+        MediaType mediaType = EntityTagUtility.getMediaType(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            List<OrderItemVersion> orderItemVersions = customerService.findOrderItemVersionsById(customerId);
+            if (!orderItemVersions.isEmpty()
+                    && webRequest.checkNotModified(EntityTagUtility.getETag(customerService.getFingerprint(orderItemVersions), mediaType))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
+
+        Optional<Customer> customerOptional = customerService.findWithOrdersById(customerId);
 
         if (customerOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -117,15 +180,49 @@ public class CustomerRestController {
 
         Customer customer = customerOptional.get();
 
-        customer.add(linkTo(methodOn(CustomerRestController.class).getCustomerById(customerId)).withSelfRel());
+        customer.add(linkTo(methodOn(CustomerRestController.class).getCustomerById(customerId, null)).withSelfRel());
         customer.add(linkTo(methodOn(getClass()).getCustomers()).withRel("customers"));
         customer.add(linkTo(methodOn(getClass()).getCustomerAssociatedOrdersByCustomerId(customerId)).withRel("orders"));
 
 
-        return ResponseEntity.ok(customer);
+        return ResponseEntity.ok()
+                .eTag(EntityTagUtility.getETag(customerService.getFingerprint(customer), mediaType))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(customer);
     }
 
-    @GetMapping(value = "/firstname/{customerFirstName}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    /**
+     * Get a statement PDF of every order of a customer
+     *
+     * @param customerId The ID of the customer
+     * @return - Returns the statement, streamed as it is generated. If a customer with the specified id is not found, return a not found response
+     */
+    @GetMapping(value = "/{customerId}/statement", produces = MediaType.APPLICATION_PDF_VALUE)
+    @Operation(summary = "Get a statement of all orders of a customer")
+    public ResponseEntity<StreamingResponseBody> getCustomerStatementById(@PathVariable("customerId") Integer customerId) {
+        Optional<Customer> customerOptional = customerService.findById(customerId);
+
+        if (customerOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Customer customer = customerOptional.get();
+        StreamingResponseBody body = outputStream -> {
+            try {
+                customerStatementService.writeStatementPdf(customer, outputStream);
+            } catch (DocumentException e) {
+                throw new IOException("Failed to generate statement", e);
+            }
+        };
+
+        String fileName = "statement-" + customer.getId() + ".pdf";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+
+    @GetMapping(value = "/firstname/{customerFirstName}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get a customer by first name")
     public CollectionModel<Customer> getCustomersByFirstName(@PathVariable("customerFirstName") String customerFirstName) {
         List<Customer> customers = customerService.findAllByFirstNameEqualsIgnoreCase(customerFirstName);
@@ -140,7 +237,7 @@ public class CustomerRestController {
      *
      * @return - Returns a list of all customers
      */
-    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get all customers")
     public CollectionModel<Customer> getCustomers() {
         List<Customer> customers = customerService.findAll();
@@ -149,22 +246,126 @@ public class CustomerRestController {
         return CollectionModel.of(customers, linkTo(methodOn(getClass()).getCustomers()).withSelfRel());
     }
 
+    /**
+     * Get several customers by id in one request, e.g. ?ids=1,2,3
+     *
+     * @param ids The IDs of the customers
+     * @return - Returns the customers in the order of the IDs, and the IDs that were not found.
+     * If more IDs are given than a batch may have, return a bad request response
+     */
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get several customers by id")
+    public ResponseEntity<BatchModel<Customer>> getCustomersByIds(@RequestParam("ids") List<Integer> ids) {
+        return getCustomerBatch(ids);
+    }
+
+    /**
+     * Get several customers by id, for batches of IDs too long for a query string
+     *
+     * @param ids The IDs of the customers as a JSON array
+     * @return - Returns the customers in the order of the IDs, and the IDs that were not found.
+     * If more IDs are given than a batch may have, return a bad request response
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get several customers by id from a list in the request body")
+    public ResponseEntity<BatchModel<Customer>> getCustomersByIdList(@RequestBody List<Integer> ids) {
+        return getCustomerBatch(ids);
+    }
+
+    private ResponseEntity<BatchModel<Customer>> getCustomerBatch(List<Integer> ids) {
+        if (ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BatchModel<Customer> batch = BatchModel.of(ids, customerService.findAllWithOrdersByIdIn(ids), Customer::getId);
+        addLinksToCustomers(new ArrayList<>(batch.getContent()));
+        batch.add(linkTo(getClass()).withRel("customers"));
+        return ResponseEntity.ok(batch);
+    }
+
+    /**
+     * Export all customers, streamed from a database cursor as they are read
+     *
+     * @param format "ndjson" for one JSON customer per line or "xml" for a single XML document
+     * @return - Returns the customers without HATEOAS links. If the format is unknown, return a bad request response
+     */
+    @GetMapping(value = "/export")
+    @Operation(summary = "Export all customers as NDJSON or XML")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(value = "format", defaultValue = "ndjson", required = false) String format) {
+        if ("xml".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = exportService::writeCustomersXml;
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_XML).body(body);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = exportService::writeCustomersNdjson;
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
     @Operation(summary = "Getting customers through pagination")
-    @GetMapping(value = "/page", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
-    public PagedModel<EntityModel<Customer>> getAll(
+    @GetMapping(value = "/page", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<PagedModel<EntityModel<Customer>>> getAll(
             @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
             @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize
     ) {
-        PageRequest pageRequest = PageRequest.of(pageNo, pageSize);
+        if (pageNo < 0 || pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        PageRequest pageRequest = PageRequest.of(pageNo, Math.min(pageSize, KeysetPage.MAX_PAGE_SIZE));
         Page<Customer> page = customerService.findAll(pageRequest);
         for (Customer customer : page.getContent()) {
             Integer id = customer.getId();
 
-            Link customerLink = linkTo(methodOn(CustomerRestController.class).getCustomerById(id)).withRel("details");
+            Link customerLink = linkTo(methodOn(CustomerRestController.class).getCustomerById(id, null)).withRel("details");
             customer.add(customerLink);
         }
 
-        return pagedResourcesAssembler.toModel(page);
+        return ResponseEntity.ok(pagedResourcesAssembler.toModel(page));
+    }
+
+    /**
+     * Get customers through keyset (seek) pagination on the id.
+     * Unlike the offset based /page endpoint, every page costs the same however deep it is and no count query is run
+     * unless asked for.
+     *
+     * @param cursor   The opaque cursor from a next or prev link, or empty for the first page
+     * @param pageSize The number of customers on a page, at most {@link KeysetPage#MAX_PAGE_SIZE}
+     * @param count    Whether to count all customers and return the total in the X-Total-Count header
+     * @return - Returns the page of customers with self, next and prev links. If the cursor is not valid
+     * or the page size is less than 1, return a bad request response
+     */
+    @Operation(summary = "Getting customers through keyset pagination")
+    @GetMapping(value = "/seek", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<CollectionModel<Customer>> getCustomersBySeek(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "count", defaultValue = "false", required = false) boolean count
+    ) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.min(pageSize, KeysetPage.MAX_PAGE_SIZE);
+
+        KeysetPage<Customer> page = KeysetPage.read(pageCursor,
+                afterId -> customerService.findSliceAfter(afterId, size),
+                beforeId -> customerService.findSliceBefore(beforeId, size),
+                Customer::getId);
+        addLinksToCustomers(page.content());
+
+        CollectionModel<Customer> collectionModel = page.toCollectionModel(cursor,
+                pageCursorValue -> linkTo(methodOn(getClass()).getCustomersBySeek(pageCursorValue, size, count)));
+
+        var response = ResponseEntity.ok();
+        if (count) {
+            response.header("X-Total-Count", String.valueOf(customerService.count()));
+        }
+        return response.body(collectionModel);
     }
 
     /**
@@ -172,17 +373,41 @@ public class CustomerRestController {
      *
      * @param customerId      The ID of the customer to update
      * @param updatedCustomer The customer object with the updated information to save
-     * @return If successful, returns the updated customer object. If unsuccessful, returns a bad request response. If the customer ID in the path does not match the customer ID in the body, returns a bad request response.
+     * @param webRequest      The current request, whose If-Match header must hold the ETag of the customer being replaced
+     * @return If successful, returns the updated customer object with its new ETag. If unsuccessful, returns a bad request response. If the customer ID in the path does not match the customer ID in the body, returns a bad request response.
+     * If there is no If-Match header, returns a precondition required response. If the customer has changed since the ETag in If-Match was read, returns a precondition failed response.
+     * If a customer with the specified id is not found, return a not found response
      */
-    @PutMapping(value = "/{customerId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @PutMapping(value = "/{customerId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Updates a customer")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable int customerId, @Valid @RequestBody Customer updatedCustomer) {
+    public ResponseEntity<Customer> updateCustomer(@PathVariable int customerId, @Valid @RequestBody Customer updatedCustomer, WebRequest webRequest) {
         if (updatedCustomer.getId() != null && updatedCustomer.getId() != customerId) {
             return ResponseEntity.badRequest().build();
         }
+        if (webRequest.getHeader(HttpHeaders.IF_MATCH) == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        MediaType mediaType = EntityTagUtility.getMediaType(webRequest.getHeader(HttpHeaders.ACCEPT));
+        List<OrderItemVersion> orderItemVersions = customerService.findOrderItemVersionsById(customerId);
+        if (orderItemVersions.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(EntityTagUtility.getETag(customerService.getFingerprint(orderItemVersions), mediaType))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+
+        // The version that matched If-Match; saving fails if the customer is updated again in the meantime
+        updatedCustomer.setId(customerId);
+        updatedCustomer.setVersion(orderItemVersions.get(0).rootVersion());
         try {
             Customer customer = customerService.updateCustomer(updatedCustomer);
-            return ResponseEntity.ok(customer);
+            String fingerprint = customerService.getFingerprint(customerService.findOrderItemVersionsById(customerId));
+            return ResponseEntity.ok()
+                    .eTag(EntityTagUtility.getETag(fingerprint, mediaType))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(customer);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -218,13 +443,14 @@ public class CustomerRestController {
      * @param customers The list of customers to add links to each customer
      */
     public static void addLinksToCustomers(List<Customer> customers) {
+        String baseUri = IdLinkTemplate.getBaseUri();
         for (Customer customer : customers) {
             Integer customerId = customer.getId();
 
-            Link additionalOrdersLink = linkTo(methodOn(CustomerRestController.class).getCustomerAssociatedOrdersByCustomerId(customerId)).withRel("Additional Orders");
+            Link additionalOrdersLink = ORDERS_LINK.expand(baseUri, customerId, ADDITIONAL_ORDERS);
             customer.add(additionalOrdersLink);
 
-            Link selfLink = linkTo(methodOn(CustomerRestController.class).getCustomerById(customerId)).withSelfRel();
+            Link selfLink = SELF_LINK.expand(baseUri, customerId, IanaLinkRelations.SELF);
             customer.add(selfLink);
         }
     }
@@ -1,42 +1,93 @@
 package com.example.assignmenttwo_starter.web.rest.controllers;
 
+import com.example.assignmenttwo_starter.model.BatchModel;
 import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderFilter;
+import com.example.assignmenttwo_starter.model.OrderItemVersion;
+import com.example.assignmenttwo_starter.services.ExportService;
+import com.example.assignmenttwo_starter.services.InvoiceExportService;
+import com.example.assignmenttwo_starter.services.InvoiceService;
 import com.example.assignmenttwo_starter.services.OrderService;
-import com.example.assignmenttwo_starter.utilities.OrderPdfBuilder;
+import com.example.assignmenttwo_starter.services.RenderingService;
+import com.example.assignmenttwo_starter.utilities.EntityTagUtility;
+import com.example.assignmenttwo_starter.utilities.IdLinkTemplate;
+import com.example.assignmenttwo_starter.utilities.KeysetPage;
+import com.example.assignmenttwo_starter.utilities.PageCursor;
 import io.swagger.v3.oas.annotations.Operation;
-import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
 @RequestMapping(name = "Order Rest Controller", value = "/orders")
 public class OrderRestController {
+    private static final Logger logger = LoggerFactory.getLogger(OrderRestController.class);
+    private static final IdLinkTemplate SELF_LINK = new IdLinkTemplate(() -> methodOn(OrderRestController.class).getOrderById(null, null));
+
     @Autowired
     private OrderService orderService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private InvoiceService invoiceService;
+    @Autowired
+    private InvoiceExportService invoiceExportService;
+    @Autowired
+    private RenderingService renderingService;
+    @Value("${batch.max-ids:1000}")
+    private int maxBatchIds;
 
     /**
      * Get an order by id
      *
      * @param orderId The ID of the order to be retrieved
-     * @return - Returns the order for the specified ID. If a order with the specified id is not found, return a not found response
+     * @param webRequest The current request, used for the conditional (If-None-Match) check
+     * @return - Returns the order for the specified ID with an ETag made from the versions of the order and its items, for the negotiated
+     * media type. If the ETag matches If-None-Match, return not modified without loading the order. If a order with the specified id is not found, return a not found response
      */
-    @GetMapping(value = "/{orderId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @GetMapping(value = "/{orderId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get a order by id")
-    public ResponseEntity<Order> getOrderById(@PathVariable("orderId") Integer orderId) {
-        Optional<Order> orderOptional = orderService.findById(orderId);
+    public ResponseEntity<Order> getOrderById(@PathVariable("orderId") Integer orderId, WebRequest webRequest) {
+        MediaType mediaType = EntityTagUtility.getMediaType(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            List<OrderItemVersion> orderItemVersions = orderService.findOrderItemVersionsById(orderId);
+            if (!orderItemVersions.isEmpty()
+                    && webRequest.checkNotModified(EntityTagUtility.getETag(orderService.getFingerprint(orderItemVersions), mediaType))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
+
+        Optional<Order> orderOptional = orderService.findWithItemsById(orderId);
 
         if (orderOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -44,76 +95,250 @@ public class OrderRestController {
 
         Order order = orderOptional.get();
 
-        order.add(linkTo(methodOn(OrderRestController.class).getOrderById(orderId)).withSelfRel());
-        order.add(linkTo(methodOn(getClass()).getOrders()).withRel("orders"));
+        order.add(linkTo(methodOn(OrderRestController.class).getOrderById(orderId, null)).withSelfRel());
+        order.add(linkTo(getClass()).withRel("orders"));
 
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok()
+                .eTag(EntityTagUtility.getETag(orderService.getFingerprint(order), mediaType))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(order);
     }
 
+    /**
+     * Get several orders by id in one request, e.g. ?ids=1,2,3
+     *
+     * @param ids The IDs of the orders
+     * @return - Returns the orders in the order of the IDs, and the IDs that were not found.
+     * If more IDs are given than a batch may have, return a bad request response
+     */
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get several orders by id")
+    public ResponseEntity<BatchModel<Order>> getOrdersByIds(@RequestParam("ids") List<Integer> ids) {
+        return getOrderBatch(ids);
+    }
 
     /**
-     * Get all orders
+     * Get several orders by id, for batches of IDs too long for a query string
      *
-     * @return - Returns a list of all orders
+     * @param ids The IDs of the orders as a JSON array
+     * @return - Returns the orders in the order of the IDs, and the IDs that were not found.
+     * If more IDs are given than a batch may have, return a bad request response
      */
-    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
-    @Operation(summary = "Get all orders")
-    public CollectionModel<Order> getOrders() {
-        List<Order> orders = orderService.findAll();
-        addLinksToOrders(orders);
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get several orders by id from a list in the request body")
+    public ResponseEntity<BatchModel<Order>> getOrdersByIdList(@RequestBody List<Integer> ids) {
+        return getOrderBatch(ids);
+    }
+
+    private ResponseEntity<BatchModel<Order>> getOrderBatch(List<Integer> ids) {
+        if (ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BatchModel<Order> batch = BatchModel.of(ids, orderService.findAllWithItemsByIdIn(ids), Order::getId);
+        addLinksToOrders(new ArrayList<>(batch.getContent()));
+        batch.add(linkTo(getClass()).withRel("orders"));
+        return ResponseEntity.ok(batch);
+    }
+
+
+    /**
+     * Get orders, optionally filtered. Without any filter, cursor or page size, all orders are returned in one list.
+     * Otherwise the matching orders are returned through keyset (seek) pagination on the id, so every page costs the same
+     * however deep it is, and the filters are answered from the indexes on the orders table.
+     *
+     * @param statuses   The names of the statuses the orders may have, e.g. Pending
+     * @param from       The earliest order date (inclusive), e.g. 2022-09-06T09:00:00Z
+     * @param to         The latest order date (exclusive)
+     * @param customerId The ID of the customer who placed the orders
+     * @param minTotal   The smallest order total (inclusive)
+     * @param maxTotal   The largest order total (inclusive)
+     * @param cursor     The opaque cursor from a next or prev link, or empty for the first page
+     * @param pageSize   The number of orders on a page, at most {@link KeysetPage#MAX_PAGE_SIZE}, 10 if a filter or cursor is given without it
+     * @param count      Whether to count all matching orders and return the total in the X-Total-Count header
+     * @return - Returns the orders, with self, next and prev links when paginated. If a status is unknown, the cursor is not valid
+     * or the page size is less than 1, return a bad request response
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get orders, optionally filtered by status, date range, customer and total")
+    public ResponseEntity<CollectionModel<Order>> getOrders(
+            @RequestParam(value = "status", required = false) List<String> statuses,
+            @RequestParam(value = "from", required = false) Instant from,
+            @RequestParam(value = "to", required = false) Instant to,
+            @RequestParam(value = "customerId", required = false) Integer customerId,
+            @RequestParam(value = "minTotal", required = false) BigDecimal minTotal,
+            @RequestParam(value = "maxTotal", required = false) BigDecimal maxTotal,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false) Integer pageSize,
+            @RequestParam(value = "count", defaultValue = "false", required = false) boolean count
+    ) {
+        if (statuses == null && from == null && to == null && customerId == null && minTotal == null && maxTotal == null
+                && cursor == null && pageSize == null && !count) {
+            List<Order> orders = orderService.findAll();
+            addLinksToOrders(orders);
+
+            return ResponseEntity.ok(CollectionModel.of(orders, linkTo(getClass()).withSelfRel()));
+        }
+
+        PageCursor pageCursor;
+        OrderFilter filter;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+            filter = new OrderFilter(
+                    statuses == null ? null : orderService.getOrderStatusIds(statuses),
+                    from == null ? null : Date.from(from),
+                    to == null ? null : Date.from(to),
+                    customerId, minTotal, maxTotal);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (pageSize != null && pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = pageSize == null ? 10 : Math.min(pageSize, KeysetPage.MAX_PAGE_SIZE);
+
+        KeysetPage<Order> page = KeysetPage.read(pageCursor,
+                afterId -> orderService.findSliceAfter(filter, afterId, size),
+                beforeId -> orderService.findSliceBefore(filter, beforeId, size),
+                Order::getId);
+        addLinksToOrders(page.content());
+
+        CollectionModel<Order> collectionModel = page.toCollectionModel(cursor,
+                pageCursorValue -> linkTo(methodOn(getClass()).getOrders(statuses, from, to, customerId, minTotal, maxTotal, pageCursorValue, size, count)));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (count) {
+            response.header("X-Total-Count", String.valueOf(orderService.count(filter)));
+        }
+        return response.body(collectionModel);
+    }
+
 
-        return CollectionModel.of(orders, linkTo(methodOn(getClass()).getOrders()).withSelfRel());
+    /**
+     * Export all orders, streamed from a database cursor as they are read
+     *
+     * @param format "ndjson" for one JSON order per line or "xml" for a single XML document
+     * @return - Returns the orders without HATEOAS links. If the format is unknown, return a bad request response
+     */
+    @GetMapping(value = "/export")
+    @Operation(summary = "Export all orders as NDJSON or XML")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(value = "format", defaultValue = "ndjson", required = false) String format) {
+        if ("xml".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = exportService::writeOrdersXml;
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_XML).body(body);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = exportService::writeOrdersNdjson;
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+        return ResponseEntity.badRequest().build();
     }
 
+    /**
+     * Export the invoices of several orders as a single ZIP, streamed while the invoices are being rendered
+     *
+     * @param customerId Only export orders of this customer
+     * @param from       Only export orders placed on or after this date
+     * @param to         Only export orders placed on or before this date
+     * @param orderIds   Export exactly these orders (the other filters are then ignored)
+     * @return A ZIP with one PDF per active (pending or processing) order. Missing and inactive orders are skipped.
+     * If no filter is given, return a bad request response
+     */
+    @GetMapping(value = "/invoices", produces = "application/zip")
+    @Operation(summary = "Export the invoices of active orders as a ZIP")
+    public ResponseEntity<StreamingResponseBody> getOrderDocumentsZip(
+            @RequestParam(value = "customerId", required = false) Integer customerId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "orderIds", required = false) List<Integer> orderIds
+    ) {
+        if (customerId == null && from == null && to == null && (orderIds == null || orderIds.isEmpty())) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Integer> exportOrderIds = invoiceExportService.findOrderIds(customerId, from, to, orderIds);
+        StreamingResponseBody body = outputStream -> invoiceExportService.writeInvoiceZip(exportOrderIds, outputStream);
 
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invoices.zip\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Get the invoice PDF of an active (pending or processing) order.
+     * Rendered invoices are cached against a fingerprint of the order, so re-downloading an unchanged invoice
+     * does not render it again. The fingerprint is sent as a strong ETag and a matching If-None-Match returns 304.
+     * The request is handled asynchronously: the order is looked up on the rendering request pool and an invoice that has to be
+     * rendered is rendered on the rendering executor; if either is full, 503 with Retry-After is returned.
+     * The PDF is complete before anything is written, so a failure is always answered with an error status.
+     *
+     * @param ifNoneMatch The If-None-Match header, for the conditional check
+     * @param orderId The ID of the order
+     * @return - Returns the PDF as an attachment. If the order is not found, return a not found response.
+     * If the order is not active, return a method not allowed response
+     */
     @GetMapping(value = "/{orderId}/active")
-    public void getOrderDocumentById(HttpServletResponse response, @PathVariable("orderId") Integer orderId) {
-        Optional<Order> orderOptional = orderService.findById(orderId);
+    @Operation(summary = "Get the invoice of an active order")
+    public CompletableFuture<ResponseEntity<byte[]>> getOrderDocumentById(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                          @PathVariable("orderId") Integer orderId) {
+        return renderingService.prepare(() -> getOrderDocument(ifNoneMatch, orderId))
+                .thenCompose(Function.identity())
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(renderingService.getRetryAfterSeconds()))
+                                .build();
+                    }
+                    logger.error("Failed to generate PDF for order " + orderId, cause);
+                    return getTextResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to generate PDF");
+                });
+    }
+
+    // Private Methods
+
+    /**
+     * Looks up an order and checks it against If-None-Match and the invoice caches
+     *
+     * @return The response, or the future of the response once the invoice is rendered
+     */
+    private CompletableFuture<ResponseEntity<byte[]>> getOrderDocument(String ifNoneMatch, Integer orderId) throws IOException {
+        Optional<Order> orderOptional = orderService.findWithInvoiceDataById(orderId);
 
         if (orderOptional.isEmpty()) {
-            response.setStatus(HttpStatus.NOT_FOUND.value());
-            response.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
-            try {
-                response.getWriter().write("Order not found");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            return;
+            return CompletableFuture.completedFuture(getTextResponse(HttpStatus.NOT_FOUND, "Order not found"));
         }
 
         Order order = orderOptional.get();
 
         if (!order.getOrderStatus().isPendingOrProcessing()) {
-            response.setStatus(HttpStatus.METHOD_NOT_ALLOWED.value());
-            response.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
-            try {
-                response.getWriter().write("Order is not active. Order has been shipped, delivered or cancelled.");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            return;
+            return CompletableFuture.completedFuture(getTextResponse(HttpStatus.METHOD_NOT_ALLOWED,
+                    "Order is not active. Order has been shipped, delivered or cancelled."));
         }
 
+        String fingerprint = invoiceService.getFingerprint(order);
+        String eTag = "\"" + fingerprint + "\"";
+        if (EntityTagUtility.isNotModified(ifNoneMatch, eTag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
 
-        String fileName = "order-" + order.getId() + ".pdf";
-        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
-        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+        byte[] pdf = invoiceService.findInvoicePdf(order, fingerprint);
+        CompletableFuture<byte[]> pdfFuture = pdf != null
+                ? CompletableFuture.completedFuture(pdf)
+                : renderingService.submit(() -> invoiceService.getInvoicePdf(order, fingerprint));
+        return pdfFuture.thenApply(content -> ResponseEntity.ok()
+                .eTag(eTag)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"order-" + order.getId() + ".pdf\"")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(content));
+    }
 
-        String productsDirectoryPath = "static/assets/images/thumbs/";
-        var invoicePdfBuilder = new OrderPdfBuilder(order, productsDirectoryPath);
-        try {
-            invoicePdfBuilder.generatePdfReport(response.getOutputStream());
-        } catch (Exception e) {
-            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
-            response.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE);
-            try {
-                response.getOutputStream().close();
-                response.getWriter().write("Failed to generate PDF");
-            } catch (IOException ioException) {
-                ioException.printStackTrace();
-            }
-        }
+    private static ResponseEntity<byte[]> getTextResponse(HttpStatus status, String text) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(text.getBytes(StandardCharsets.UTF_8));
     }
+
     // Static Methods
 
     /**
@@ -122,10 +347,11 @@ public class OrderRestController {
      * @param orders The list of orders to add links to each order
      */
     public static void addLinksToOrders(List<Order> orders) {
+        String baseUri = IdLinkTemplate.getBaseUri();
         for (Order order : orders) {
             Integer orderId = order.getId();
 
-            Link selfLink = linkTo(methodOn(OrderRestController.class).getOrderById(orderId)).withSelfRel();
+            Link selfLink = SELF_LINK.expand(baseUri, orderId, IanaLinkRelations.SELF);
             order.add(selfLink);
         }
     }
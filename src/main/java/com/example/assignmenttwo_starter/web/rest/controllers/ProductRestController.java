@@ -0,0 +1,286 @@
+package com.example.assignmenttwo_starter.web.rest.controllers;
+
+import com.example.assignmenttwo_starter.model.CatalogSnapshot;
+import com.example.assignmenttwo_starter.model.Product;
+import com.example.assignmenttwo_starter.model.ProductIndexStatistics;
+import com.example.assignmenttwo_starter.model.ProductRating;
+import com.example.assignmenttwo_starter.model.ProductRequest;
+import com.example.assignmenttwo_starter.model.ProductReview;
+import com.example.assignmenttwo_starter.model.ProductSummary;
+import com.example.assignmenttwo_starter.model.Review;
+import com.example.assignmenttwo_starter.model.ReviewRequest;
+import com.example.assignmenttwo_starter.services.ProductService;
+import com.example.assignmenttwo_starter.services.ReviewService;
+import com.example.assignmenttwo_starter.utilities.KeysetPage;
+import com.example.assignmenttwo_starter.utilities.PageCursor;
+import com.example.assignmenttwo_starter.utilities.ProductSearchIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@RestController
+@RequestMapping("/products")
+public class ProductRestController {
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ReviewService reviewService;
+
+    /**
+     * Search the products by the terms of their name and description, ranked by how well they match.
+     * Each search term matches a whole term or the start of one, and a product must match every search term.
+     * Searches are served from an in-memory index.
+     *
+     * @param q          - The search text, or empty for every product in id order
+     * @param categoryId - Only return products of this category
+     * @param minPrice   - Only return products costing at least this
+     * @param maxPrice   - Only return products costing at most this
+     * @param page       - The number of the page, from 0
+     * @param pageSize   - The number of products on a page
+     * @return - Returns the page of products with their ratings, and self, first, next and prev links.
+     * If the page, page size or price range is not valid, return a bad request response
+     */
+    @GetMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Search products")
+    public ResponseEntity<PagedModel<ProductSummary>> getProducts(
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "categoryId", required = false) Integer categoryId,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "page", defaultValue = "0", required = false) int page,
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize
+    ) {
+        if (page < 0 || pageSize < 1 || (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<ProductSearchIndex.Hit> hits = productService.search(q, categoryId, minPrice, maxPrice);
+        int start = (int) Math.min((long) page * pageSize, hits.size());
+        List<ProductSearchIndex.Hit> pageHits = hits.subList(start, Math.min(start + pageSize, hits.size()));
+
+        Map<Integer, ProductRating> ratings = reviewService.getRatings(pageHits.stream().map(hit -> hit.product().id()).toList());
+        boolean scored = !ProductSearchIndex.tokenize(q).isEmpty();
+        List<ProductSummary> products = pageHits.stream()
+                .map(hit -> toSummary(hit.product(), ratings.get(hit.product().id()), scored ? hit.score() : null))
+                .toList();
+
+        var metadata = new PagedModel.PageMetadata(pageSize, page, hits.size());
+        PagedModel<ProductSummary> pagedModel = PagedModel.of(products, metadata,
+                linkTo(methodOn(getClass()).getProducts(q, categoryId, minPrice, maxPrice, page, pageSize)).withSelfRel().expand());
+        pagedModel.add(linkTo(methodOn(getClass()).getProducts(q, categoryId, minPrice, maxPrice, 0, pageSize)).withRel(IanaLinkRelations.FIRST).expand());
+        if (page + 1 < metadata.getTotalPages()) {
+            pagedModel.add(linkTo(methodOn(getClass()).getProducts(q, categoryId, minPrice, maxPrice, page + 1, pageSize)).withRel(IanaLinkRelations.NEXT).expand());
+        }
+        if (page > 0) {
+            pagedModel.add(linkTo(methodOn(getClass()).getProducts(q, categoryId, minPrice, maxPrice, page - 1, pageSize)).withRel(IanaLinkRelations.PREV).expand());
+        }
+        return ResponseEntity.ok(pagedModel);
+    }
+
+    /**
+     * Get a product by its ID
+     *
+     * @param productId - The ID of the product
+     * @return - Returns the product with its rating. If the product is not found, return a not found response
+     */
+    @GetMapping(value = "/{productId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get a product by its ID")
+    public ResponseEntity<ProductSummary> getProductById(@PathVariable("productId") Integer productId) {
+        CatalogSnapshot.ProductEntry product = productService.findIndexedById(productId);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(toSummary(product, reviewService.getRating(productId), null));
+    }
+
+    /**
+     * Get the size of the product search index
+     *
+     * @return - Returns the number of products, terms and postings in the index and an estimate of the memory it uses
+     */
+    @GetMapping(value = "/index", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get product search index statistics")
+    public ProductIndexStatistics getIndexStatistics() {
+        return productService.getIndexStatistics();
+    }
+
+    /**
+     * Create a product
+     *
+     * @param request - The values of the product
+     * @return - Returns the ID of the new product. If the category is not found, return a bad request response
+     */
+    @PostMapping(value = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Create a product")
+    public ResponseEntity<Map<String, Integer>> createProduct(@Valid @RequestBody ProductRequest request) {
+        Product product;
+        try {
+            product = productService.createProduct(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.created(linkTo(methodOn(getClass()).getProductById(product.getId())).toUri()).body(Map.of("id", product.getId()));
+    }
+
+    /**
+     * Update a product
+     *
+     * @param productId - The ID of the product
+     * @param request   - The new values of the product
+     * @return - Returns no content. If the product is not found, return a not found response.
+     * If the category is not found, return a bad request response
+     */
+    @PutMapping(value = "/{productId}")
+    @Operation(summary = "Update a product")
+    public ResponseEntity<Void> updateProduct(@PathVariable("productId") Integer productId, @Valid @RequestBody ProductRequest request) {
+        try {
+            return productService.updateProduct(productId, request).isPresent() ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get the rating totals of a product
+     *
+     * @param productId - The ID of the product
+     * @return - Returns the number of reviews, the average rating and the number of reviews with each rating from 1 to 5.
+     * If the product is not found, return a not found response
+     */
+    @GetMapping(value = "/{productId}/rating", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get the rating of a product")
+    public ResponseEntity<ProductRating> getProductRating(@PathVariable("productId") Integer productId) {
+        if (!reviewService.productExists(productId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(reviewService.getRating(productId));
+    }
+
+    /**
+     * Get the reviews of a product through keyset (seek) pagination on the review id.
+     * Comments are only read when asked for.
+     *
+     * @param productId       - The ID of the product
+     * @param cursor          - The opaque cursor from a next or prev link, or empty for the first page
+     * @param pageSize        - The number of reviews on a page, at most {@link KeysetPage#MAX_PAGE_SIZE}
+     * @param includeComments - Whether to include the comments of the reviews
+     * @param count           - Whether to count the reviews of the product and return the total in the X-Total-Count header
+     * @return - Returns the page of reviews with self, first, next and prev links.
+     * If the product is not found, return a not found response. If the cursor or page size is not valid, return a bad request response
+     */
+    @GetMapping(value = "/{productId}/reviews", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get the reviews of a product through keyset pagination")
+    public ResponseEntity<CollectionModel<ProductReview>> getProductReviews(
+            @PathVariable("productId") Integer productId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "includeComments", defaultValue = "false", required = false) boolean includeComments,
+            @RequestParam(value = "count", defaultValue = "false", required = false) boolean count
+    ) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.min(pageSize, KeysetPage.MAX_PAGE_SIZE);
+        if (!reviewService.productExists(productId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        KeysetPage<ProductReview> page = KeysetPage.read(pageCursor,
+                afterId -> reviewService.findSliceAfter(productId, afterId, size, includeComments),
+                beforeId -> reviewService.findSliceBefore(productId, beforeId, size, includeComments),
+                ProductReview::id);
+
+        CollectionModel<ProductReview> collectionModel = page.toCollectionModel(cursor,
+                pageCursorValue -> linkTo(methodOn(getClass()).getProductReviews(productId, pageCursorValue, size, includeComments, count)));
+
+        var response = ResponseEntity.ok();
+        if (count) {
+            response.header("X-Total-Count", String.valueOf(reviewService.countByProductId(productId)));
+        }
+        return response.body(collectionModel);
+    }
+
+    /**
+     * Add a review to a product
+     *
+     * @param productId - The ID of the product
+     * @param request   - The customer, rating and comment of the review
+     * @return - Returns the review as it appears in the review feed.
+     * If the product is not found, return a not found response. If the customer is not found, return a bad request response
+     */
+    @PostMapping(value = "/{productId}/reviews", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Add a review to a product")
+    public ResponseEntity<ProductReview> createProductReview(@PathVariable("productId") Integer productId, @Valid @RequestBody ReviewRequest request) {
+        if (!reviewService.productExists(productId)) {
+            return ResponseEntity.notFound().build();
+        }
+        Review review;
+        try {
+            review = reviewService.createReview(productId, request.customerId(), request.rating(), request.comment());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(201).body(new ProductReview(review.getId(), request.customerId(), review.getRating(), review.getComment()));
+    }
+
+    /**
+     * Delete a review of a product
+     *
+     * @param productId - The ID of the product
+     * @param reviewId  - The ID of the review
+     * @return - Returns no content. If the product has no review with the ID, return a not found response
+     */
+    @DeleteMapping(value = "/{productId}/reviews/{reviewId}")
+    @Operation(summary = "Delete a review of a product")
+    public ResponseEntity<Void> deleteProductReview(@PathVariable("productId") Integer productId, @PathVariable("reviewId") Integer reviewId) {
+        return reviewService.deleteReview(productId, reviewId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Handles validation exceptions
+     *
+     * @param exception The exception to handle
+     * @return A map of the validation errors
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException exception) {
+        var errors = new HashMap<String, String>();
+        exception.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return errors;
+    }
+
+    private static ProductSummary toSummary(CatalogSnapshot.ProductEntry product, ProductRating rating, Double score) {
+        return new ProductSummary(product.id(), product.name(), product.description(), product.price(), product.image(),
+                product.categoryId(), product.categoryName(),
+                rating == null ? 0 : rating.getReviewCount(), rating == null ? null : rating.getAverageRating(), score);
+    }
+}
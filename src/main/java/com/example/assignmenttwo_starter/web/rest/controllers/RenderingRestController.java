@@ -0,0 +1,41 @@
+package com.example.assignmenttwo_starter.web.rest.controllers;
+
+import com.example.assignmenttwo_starter.model.RenderingStatistics;
+import com.example.assignmenttwo_starter.services.RenderingService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
+
+@RestController
+@RequestMapping("/rendering")
+public class RenderingRestController {
+    @Autowired
+    private RenderingService renderingService;
+
+    /**
+     * Get the queue depth, wait times and rejection counts of the rendering executor
+     *
+     * @return - Returns the statistics of the rendering executor
+     */
+    @GetMapping(value = "/statistics", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get rendering executor statistics")
+    public RenderingStatistics getRenderingStatistics() {
+        return renderingService.getStatistics();
+    }
+
+    /**
+     * Reset the rendering executor statistics
+     *
+     * @return - Returns no content
+     */
+    @DeleteMapping(value = "/statistics")
+    @Operation(summary = "Reset rendering executor statistics")
+    public ResponseEntity<Void> clearRenderingStatistics() {
+        renderingService.clearStatistics();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,43 +1,76 @@
 package com.example.assignmenttwo_starter.web.rest.controllers;
 
+import com.example.assignmenttwo_starter.model.BatchModel;
 import com.example.assignmenttwo_starter.model.Subscription;
+import com.example.assignmenttwo_starter.services.QrCodeService;
+import com.example.assignmenttwo_starter.services.RenderingService;
 import com.example.assignmenttwo_starter.services.SubscriptionService;
-import com.example.assignmenttwo_starter.utilities.QrCodeUtility;
+import com.example.assignmenttwo_starter.utilities.EntityTagUtility;
+import com.example.assignmenttwo_starter.utilities.IdLinkTemplate;
+import com.example.assignmenttwo_starter.utilities.KeysetPage;
+import com.example.assignmenttwo_starter.utilities.PageCursor;
 import com.example.assignmenttwo_starter.utilities.SubscriptionVCardUtility;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PagedResourcesAssembler;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
-import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.example.assignmenttwo_starter.configuration.BinaryMessageConverterConfiguration.APPLICATION_SMILE_VALUE;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @RestController
 @RequestMapping("/subscriptions")
 public class SubscriptionRestController {
+    private static final int QR_CODE_PIXEL_LENGTH = 275;
+    private static final int MAX_QR_CODE_SHEET_SIZE = 100;
+    private static final IdLinkTemplate SELF_LINK = new IdLinkTemplate(() -> methodOn(SubscriptionRestController.class).getSubscriptionById(null, null));
+
     @Autowired
     private SubscriptionService subscriptionService;
     @Autowired
+    private QrCodeService qrCodeService;
+    @Autowired
+    private RenderingService renderingService;
+    @Value("${qrcode.cache-control.max-age-seconds:86400}")
+    private long qrCodeMaxAgeSeconds;
+    @Value("${batch.max-ids:1000}")
+    private int maxBatchIds;
+    @Autowired
     private PagedResourcesAssembler<Subscription> pagedResourcesAssembler;
 
     /**
@@ -46,7 +79,7 @@ public class SubscriptionRestController {
      * @param newSubscription - Subscription object to be created
      * @return - Returns the subscription object created. If an error occurs, return a bad request
      */
-    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     public ResponseEntity<Subscription> createSubscription(@Valid @RequestBody Subscription newSubscription) {
         try {
             Subscription subscription = subscriptionService.createSubscription(newSubscription);
@@ -86,11 +119,21 @@ public class SubscriptionRestController {
      * Get a subscription by id
      *
      * @param subscriptionId The ID of the subscription to be retrieved
-     * @return - Returns the subscription for the specified ID. If a subscription with the specified id is not found, return a not found response
+     * @param webRequest The current request, used for the conditional (If-None-Match) check
+     * @return - Returns the subscription for the specified ID with its version as the ETag, for the negotiated media type. If the ETag matches If-None-Match, return not modified
+     * without loading the subscription. If a subscription with the specified id is not found, return a not found response
      */
-    @GetMapping(value = "/{subscriptionId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @GetMapping(value = "/{subscriptionId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get a subscription by id")
-    public ResponseEntity<Subscription> getSubscriptionById(@PathVariable("subscriptionId") Integer subscriptionId) {
+    public ResponseEntity<Subscription> getSubscriptionById(@PathVariable("subscriptionId") Integer subscriptionId, WebRequest webRequest) {
+        MediaType mediaType = EntityTagUtility.getMediaType(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = subscriptionService.findVersionById(subscriptionId);
+            if (version.isPresent() && webRequest.checkNotModified(EntityTagUtility.getETag(version.get(), mediaType))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
+
         Optional<Subscription> subscriptionOptional = subscriptionService.findById(subscriptionId);
 
         if (subscriptionOptional.isEmpty()) {
@@ -99,42 +142,90 @@ public class SubscriptionRestController {
 
         Subscription subscription = subscriptionOptional.get();
 
-        subscription.add(linkTo(methodOn(SubscriptionRestController.class).getSubscriptionById(subscriptionId)).withSelfRel());
+        subscription.add(linkTo(methodOn(SubscriptionRestController.class).getSubscriptionById(subscriptionId, null)).withSelfRel());
         subscription.add(linkTo(methodOn(getClass()).getSubscriptions()).withRel("subscriptions"));
 
-        return ResponseEntity.ok(subscription);
+        return ResponseEntity.ok()
+                .eTag(EntityTagUtility.getETag(subscription.getVersion(), mediaType))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(subscription);
     }
 
+    /**
+     * Get a QR code of the link of a subscription
+     *
+     * @param subscriptionId The ID of the subscription
+     * @param ifNoneMatch    The If-None-Match header, for the conditional check
+     * @return - Returns the QR code as a PNG with a strong ETag. If the ETag matches If-None-Match, return not modified.
+     * If a subscription with the specified id is not found, return a not found response.
+     * If too many renders are already running and waiting, return service unavailable with Retry-After
+     */
     @GetMapping(value = "/{subscriptionId}/qrcode", produces = MediaType.IMAGE_PNG_VALUE)
     @Operation(summary = "Get a subscription link by id")
-    public ResponseEntity<BufferedImage> getSubscriptionLinkQrCodeById(@PathVariable("subscriptionId") int subscriptionId) throws Exception {
-        Optional<Subscription> subscriptionOptional = subscriptionService.findById(subscriptionId);
-
-        if (subscriptionOptional.isEmpty())
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-        Subscription subscription = subscriptionOptional.get();
-
-        var bufferedImage = QrCodeUtility.getQrCodeImage(subscription.getUrl(),275);
-        return ResponseEntity.ok(bufferedImage);
+    public CompletableFuture<ResponseEntity<byte[]>> getSubscriptionLinkQrCodeById(@PathVariable("subscriptionId") int subscriptionId,
+                                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return getQrCodeResponse(() -> subscriptionService.findById(subscriptionId).map(Subscription::getUrl), ifNoneMatch);
     }
 
+    /**
+     * Get a QR code of the vCard of a subscription
+     *
+     * @param subscriptionId The ID of the subscription
+     * @param ifNoneMatch    The If-None-Match header, for the conditional check
+     * @return - Returns the QR code as a PNG with a strong ETag. If the ETag matches If-None-Match, return not modified.
+     * If a subscription with the specified id is not found, return a not found response.
+     * If too many renders are already running and waiting, return service unavailable with Retry-After
+     */
     @GetMapping(value = "/{subscriptionId}/vcard", produces = MediaType.IMAGE_PNG_VALUE)
     @Operation(summary = "Get a subscription vcard by id")
-    public ResponseEntity<BufferedImage> getSubscriptionVCardQrCodeById(@PathVariable("subscriptionId") int subscriptionId) throws Exception {
-        Optional<Subscription> subscriptionOptional = subscriptionService.findById(subscriptionId);
-
-        if (subscriptionOptional.isEmpty())
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-
-
-        Subscription subscription = subscriptionOptional.get();
-
+    public CompletableFuture<ResponseEntity<byte[]>> getSubscriptionVCardQrCodeById(@PathVariable("subscriptionId") int subscriptionId,
+                                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return getQrCodeResponse(() -> subscriptionService.findById(subscriptionId)
+                .map(subscription -> SubscriptionVCardUtility.getVCard(subscription).toString()), ifNoneMatch);
+    }
 
-        var vCard = SubscriptionVCardUtility.getVCard(subscription);
+    /**
+     * Get a printable sheet of the QR codes of a page of subscriptions
+     *
+     * @param type     The QR codes to print, "link" for the subscription link or "vcard" for the subscription vCard
+     * @param name     Only include subscriptions whose name contains this text (case insensitive)
+     * @param pageNo   The page of subscriptions to include
+     * @param pageSize The number of subscriptions on the page, at most 100 (larger sizes are capped)
+     * @return - Returns a PDF with a labelled QR code for each subscription on the page. If the type is unknown
+     * or the page number or size is out of range, return a bad request response.
+     * If too many renders are already running and waiting, return service unavailable with Retry-After
+     */
+    @GetMapping(value = "/qrcodes", produces = MediaType.APPLICATION_PDF_VALUE)
+    @Operation(summary = "Get a printable sheet of subscription QR codes")
+    public CompletableFuture<ResponseEntity<byte[]>> getSubscriptionQrCodeSheet(
+            @RequestParam(value = "type", defaultValue = "link", required = false) String type,
+            @RequestParam(value = "name", defaultValue = "", required = false) String name,
+            @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
+            @RequestParam(value = "pageSize", defaultValue = "30", required = false) int pageSize
+    ) {
+        boolean vCard = "vcard".equalsIgnoreCase(type);
+        if ((!vCard && !"link".equalsIgnoreCase(type)) || pageNo < 0 || pageSize < 1) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
 
-        var bufferedImage = QrCodeUtility.getQrCodeImage(vCard.toString(),275);
-        return ResponseEntity.ok(bufferedImage);
+        return withRenderingRejectedResponse(renderingService.prepare(() -> {
+            PageRequest pageRequest = PageRequest.of(pageNo, Math.min(pageSize, MAX_QR_CODE_SHEET_SIZE), Sort.by("id"));
+            List<Subscription> subscriptions = subscriptionService.findAllByNameContainingIgnoreCase(name, pageRequest).getContent();
+            List<String> labels = subscriptions.stream().map(Subscription::getName).toList();
+            List<String> texts = subscriptions.stream()
+                    .map(subscription -> vCard ? SubscriptionVCardUtility.getVCard(subscription).toString() : subscription.getUrl())
+                    .toList();
+
+            String title = "Subscription " + (vCard ? "vCard" : "link") + " QR codes, page " + pageNo;
+            return renderingService.submit(() -> {
+                var outputStream = new ByteArrayOutputStream();
+                qrCodeService.writeQrCodeSheetPdf(title, labels, texts, QR_CODE_PIXEL_LENGTH, outputStream);
+                return outputStream.toByteArray();
+            }).thenApply(pdf -> ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"subscription-qrcodes-" + pageNo + ".pdf\"")
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(pdf));
+        }).thenCompose(Function.identity()));
     }
 
     /**
@@ -142,7 +233,7 @@ public class SubscriptionRestController {
      *
      * @return - Returns a list of all subscriptions
      */
-    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Get all subscriptions")
     public CollectionModel<Subscription> getSubscriptions() {
         List<Subscription> subscriptions = subscriptionService.findAll();
@@ -151,22 +242,106 @@ public class SubscriptionRestController {
         return CollectionModel.of(subscriptions, linkTo(methodOn(getClass()).getSubscriptions()).withSelfRel());
     }
 
+    /**
+     * Get several subscriptions by id in one request, e.g. ?ids=1,2,3
+     *
+     * @param ids The IDs of the subscriptions
+     * @return - Returns the subscriptions in the order of the IDs, and the IDs that were not found.
+     * If more IDs are given than a batch may have, return a bad request response
+     */
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get several subscriptions by id")
+    public ResponseEntity<BatchModel<Subscription>> getSubscriptionsByIds(@RequestParam("ids") List<Integer> ids) {
+        return getSubscriptionBatch(ids);
+    }
+
+    /**
+     * Get several subscriptions by id, for batches of IDs too long for a query string
+     *
+     * @param ids The IDs of the subscriptions as a JSON array
+     * @return - Returns the subscriptions in the order of the IDs, and the IDs that were not found.
+     * If more IDs are given than a batch may have, return a bad request response
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    @Operation(summary = "Get several subscriptions by id from a list in the request body")
+    public ResponseEntity<BatchModel<Subscription>> getSubscriptionsByIdList(@RequestBody List<Integer> ids) {
+        return getSubscriptionBatch(ids);
+    }
+
+    private ResponseEntity<BatchModel<Subscription>> getSubscriptionBatch(List<Integer> ids) {
+        if (ids.size() > maxBatchIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        BatchModel<Subscription> batch = BatchModel.of(ids, subscriptionService.findAllById(ids), Subscription::getId);
+        addLinksToSubscriptions(new ArrayList<>(batch.getContent()));
+        batch.add(linkTo(getClass()).withRel("subscriptions"));
+        return ResponseEntity.ok(batch);
+    }
+
     @Operation(summary = "Getting subscriptions through pagination")
-    @GetMapping(value = "/page", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
-    public PagedModel<EntityModel<Subscription>> getPage(
+    @GetMapping(value = "/page", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<PagedModel<EntityModel<Subscription>>> getPage(
             @RequestParam(value = "pageNo", defaultValue = "0", required = false) int pageNo,
             @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize
     ) {
-        PageRequest pageRequest = PageRequest.of(pageNo, pageSize);
+        if (pageNo < 0 || pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        PageRequest pageRequest = PageRequest.of(pageNo, Math.min(pageSize, KeysetPage.MAX_PAGE_SIZE));
         Page<Subscription> page = subscriptionService.findAll(pageRequest);
         for (Subscription subscription : page.getContent()) {
             Integer id = subscription.getId();
 
-            Link subscriptionLink = linkTo(methodOn(SubscriptionRestController.class).getSubscriptionById(id)).withRel("details");
+            Link subscriptionLink = linkTo(methodOn(SubscriptionRestController.class).getSubscriptionById(id, null)).withRel("details");
             subscription.add(subscriptionLink);
         }
 
-        return pagedResourcesAssembler.toModel(page);
+        return ResponseEntity.ok(pagedResourcesAssembler.toModel(page));
+    }
+
+    /**
+     * Get subscriptions through keyset (seek) pagination on the id.
+     * Unlike the offset based /page endpoint, every page costs the same however deep it is and no count query is run
+     * unless asked for.
+     *
+     * @param cursor   The opaque cursor from a next or prev link, or empty for the first page
+     * @param pageSize The number of subscriptions on a page, at most {@link KeysetPage#MAX_PAGE_SIZE}
+     * @param count    Whether to count all subscriptions and return the total in the X-Total-Count header
+     * @return - Returns the page of subscriptions with self, next and prev links. If the cursor is not valid
+     * or the page size is less than 1, return a bad request response
+     */
+    @Operation(summary = "Getting subscriptions through keyset pagination")
+    @GetMapping(value = "/seek", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<CollectionModel<Subscription>> getSubscriptionsBySeek(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", defaultValue = "10", required = false) int pageSize,
+            @RequestParam(value = "count", defaultValue = "false", required = false) boolean count
+    ) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (pageSize < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = Math.min(pageSize, KeysetPage.MAX_PAGE_SIZE);
+
+        KeysetPage<Subscription> page = KeysetPage.read(pageCursor,
+                afterId -> subscriptionService.findSliceAfter(afterId, size),
+                beforeId -> subscriptionService.findSliceBefore(beforeId, size),
+                Subscription::getId);
+        addLinksToSubscriptions(page.content());
+
+        CollectionModel<Subscription> collectionModel = page.toCollectionModel(cursor,
+                pageCursorValue -> linkTo(methodOn(getClass()).getSubscriptionsBySeek(pageCursorValue, size, count)));
+
+        var response = ResponseEntity.ok();
+        if (count) {
+            response.header("X-Total-Count", String.valueOf(subscriptionService.count()));
+        }
+        return response.body(collectionModel);
     }
 
     /**
@@ -174,23 +349,99 @@ public class SubscriptionRestController {
      *
      * @param subscriptionId      The ID of the subscription to update
      * @param updatedSubscription The subscription object with the updated information to save
-     * @return If successful, returns the updated subscription object. If unsuccessful, returns a bad request response. If the subscription ID in the path does not match the subscription ID in the body, returns a bad request response.
+     * @param webRequest          The current request, whose If-Match header must hold the ETag of the subscription being replaced
+     * @return If successful, returns the updated subscription object with its new ETag. If unsuccessful, returns a bad request response. If the subscription ID in the path does not match the subscription ID in the body, returns a bad request response.
+     * If there is no If-Match header, returns a precondition required response. If the subscription has changed since the ETag in If-Match was read, returns a precondition failed response.
+     * If a subscription with the specified id is not found, return a not found response
      */
-    @PutMapping(value = "/{subscriptionId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE})
+    @PutMapping(value = "/{subscriptionId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_XML_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
     @Operation(summary = "Updates a subscription")
-    public ResponseEntity<Subscription> updateSubscription(@PathVariable int subscriptionId,@Valid @RequestBody Subscription updatedSubscription) {
+    public ResponseEntity<Subscription> updateSubscription(@PathVariable int subscriptionId,@Valid @RequestBody Subscription updatedSubscription, WebRequest webRequest) {
         if (updatedSubscription.getId() != subscriptionId) {
             return ResponseEntity.badRequest().build();
         }
+        if (webRequest.getHeader(HttpHeaders.IF_MATCH) == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        MediaType mediaType = EntityTagUtility.getMediaType(webRequest.getHeader(HttpHeaders.ACCEPT));
+        Optional<Long> version = subscriptionService.findVersionById(subscriptionId);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (webRequest.checkNotModified(EntityTagUtility.getETag(version.get(), mediaType))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+
+        // The version that matched If-Match; saving fails if the subscription is updated again in the meantime
+        updatedSubscription.setVersion(version.get());
         try {
             Subscription subscription = subscriptionService.updateSubscription(updatedSubscription);
-            return ResponseEntity.ok(subscription);
+            return ResponseEntity.ok()
+                .eTag(EntityTagUtility.getETag(subscription.getVersion(), mediaType))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(subscription);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     // Private Methods
 
+    /**
+     * Builds the response for a QR code, asynchronously. The QR code only depends on the text and the size,
+     * so the ETag is derived from those and the PNG is only encoded (or taken from the cache) if the client does not have it.
+     *
+     * @param textLookup  Looks up the text to encode, empty if the subscription does not exist
+     * @param ifNoneMatch The If-None-Match header of the request, may be null
+     * @return The PNG with ETag and Cache-Control headers, or not modified, or not found,
+     * or service unavailable if the rendering executor is full
+     */
+    private CompletableFuture<ResponseEntity<byte[]>> getQrCodeResponse(Callable<Optional<String>> textLookup, String ifNoneMatch) {
+        return withRenderingRejectedResponse(renderingService.prepare(() -> {
+            Optional<String> text = textLookup.call();
+            if (text.isEmpty()) {
+                return CompletableFuture.completedFuture(new ResponseEntity<byte[]>(HttpStatus.NOT_FOUND));
+            }
+
+            String eTag = "\"" + qrCodeService.getKey(text.get(), QR_CODE_PIXEL_LENGTH) + "\"";
+            CacheControl cacheControl = CacheControl.maxAge(qrCodeMaxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+
+            if (EntityTagUtility.isNotModified(ifNoneMatch, eTag)) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).<byte[]>build());
+            }
+
+            byte[] png = qrCodeService.findQrCodePng(text.get(), QR_CODE_PIXEL_LENGTH);
+            CompletableFuture<byte[]> pngFuture = png != null
+                    ? CompletableFuture.completedFuture(png)
+                    : renderingService.submit(() -> qrCodeService.getQrCodePng(text.get(), QR_CODE_PIXEL_LENGTH));
+            return pngFuture.thenApply(content -> ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(cacheControl)
+                    .contentType(MediaType.IMAGE_PNG)
+                    .body(content));
+        }).thenCompose(Function.identity()));
+    }
+
+    /**
+     * Answers a rendering request rejected by a full pool with service unavailable, asking the client to retry
+     * once the rendering executor has caught up. Other failures are left to the default error handling.
+     *
+     * @param response The future response
+     * @return The future response, or service unavailable with Retry-After if the request was rejected
+     */
+    private CompletableFuture<ResponseEntity<byte[]>> withRenderingRejectedResponse(CompletableFuture<ResponseEntity<byte[]>> response) {
+        return response.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(renderingService.getRetryAfterSeconds()))
+                        .build();
+            }
+            throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+        });
+    }
+
     /**
      * Handles validation exceptions
      * Required for @Valid annotation to work
@@ -220,10 +471,11 @@ public class SubscriptionRestController {
      * @param subscriptions The list of subscriptions to add links to each subscription
      */
     public static void addLinksToSubscriptions(List<Subscription> subscriptions) {
+        String baseUri = IdLinkTemplate.getBaseUri();
         for (Subscription subscription : subscriptions) {
             Integer subscriptionId = subscription.getId();
 
-            Link selfLink = linkTo(methodOn(SubscriptionRestController.class).getSubscriptionById(subscriptionId)).withSelfRel();
+            Link selfLink = SELF_LINK.expand(baseUri, subscriptionId, IanaLinkRelations.SELF);
             subscription.add(selfLink);
         }
     }
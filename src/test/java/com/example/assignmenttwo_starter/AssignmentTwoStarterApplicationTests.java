@@ -1,9 +1,10 @@
 package com.example.assignmenttwo_starter;
 
+import com.example.assignmenttwo_starter.application.AssignmentTwoStarterApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(classes = AssignmentTwoStarterApplication.class)
 class AssignmentTwoStarterApplicationTests {
 
     @Test
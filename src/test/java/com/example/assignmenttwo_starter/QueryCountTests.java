@@ -0,0 +1,92 @@
+package com.example.assignmenttwo_starter;
+
+import com.example.assignmenttwo_starter.application.AssignmentTwoStarterApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements the read endpoints run, so a change to a fetch plan that brings back
+ * one query per order, item or product fails here instead of in production.
+ */
+@SpringBootTest(classes = AssignmentTwoStarterApplication.class, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "invoice.prerender.enabled=false"
+})
+@AutoConfigureMockMvc
+class QueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getOrderLoadsItemsInOneQuery() throws Exception {
+        assertStatementCount("/orders/45", 1);
+    }
+
+    @Test
+    void getOrdersDoesNotQueryPerOrder() throws Exception {
+        assertStatementCount("/orders", 1);
+    }
+
+    @Test
+    void getCustomerOrdersDoesNotQueryPerOrder() throws Exception {
+        assertStatementCount("/customers/125/orders", 2);
+    }
+
+    @Test
+    void getCustomerDoesNotQueryPerOrder() throws Exception {
+        // customer with orders, reviews, order items in one batch
+        assertStatementCount("/customers/125", 3);
+    }
+
+    @Test
+    void getCustomersDoesNotQueryPerCustomer() throws Exception {
+        // customers with orders, then reviews and order items in batches of 50
+        long statements = countStatements("/customers");
+        assertTrue(statements <= 20, "Expected at most 20 statements but was " + statements);
+    }
+
+    @Test
+    void getInvoiceLoadsEverythingPrintedInOneQuery() throws Exception {
+        // the invoice endpoint is asynchronous, so the statements are only counted once the dispatched result is back
+        statistics.clear();
+        MvcResult result = mockMvc.perform(get("/orders/45/active")).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 1, "Expected at most 1 statement for /orders/45/active but was " + statements);
+    }
+
+    private void assertStatementCount(String url, long maxStatements) throws Exception {
+        long statements = countStatements(url);
+        assertTrue(statements <= maxStatements, "Expected at most " + maxStatements + " statements for " + url + " but was " + statements);
+    }
+
+    private long countStatements(String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.assignmenttwo_starter;
+
+import com.example.assignmenttwo_starter.application.AssignmentTwoStarterApplication;
+import com.example.assignmenttwo_starter.services.RenderingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that a rendering endpoint answers 503 with Retry-After once the rendering request pool is saturated,
+ * instead of queueing the request without bound.
+ */
+@SpringBootTest(classes = AssignmentTwoStarterApplication.class, properties = {
+        "invoice.prerender.enabled=false",
+        "rendering.request-threads=1",
+        "rendering.request-queue-capacity=0",
+        "rendering.retry-after-seconds=7"
+})
+@AutoConfigureMockMvc
+class RenderingRejectionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RenderingService renderingService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void saturateRequestPool() throws Exception {
+        // occupy the only request thread; with no queue every further request is rejected
+        CountDownLatch running = new CountDownLatch(1);
+        renderingService.prepare(() -> {
+            running.countDown();
+            release.await();
+            return null;
+        });
+        running.await();
+    }
+
+    @AfterEach
+    void releaseRequestPool() {
+        release.countDown();
+    }
+
+    @Test
+    void getInvoiceIsRejectedWithRetryAfterWhenSaturated() throws Exception {
+        MvcResult result = mockMvc.perform(get("/orders/45/active")).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+}
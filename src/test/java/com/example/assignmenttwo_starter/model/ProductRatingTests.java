@@ -0,0 +1,64 @@
+package com.example.assignmenttwo_starter.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductRatingTests {
+
+    @Test
+    void newRatingHasNoReviewsAndNoAverage() {
+        var rating = new ProductRating(7);
+
+        assertEquals(0, rating.getReviewCount());
+        assertNull(rating.getAverageRating());
+        assertEquals(List.of(0L, 0L, 0L, 0L, 0L), rating.getHistogram());
+    }
+
+    @Test
+    void addCountsReviewsInTheAverageAndHistogram() {
+        var rating = new ProductRating(7);
+        rating.add(5);
+        rating.add(4);
+        rating.add(4);
+
+        assertEquals(3, rating.getReviewCount());
+        assertEquals(new BigDecimal("4.33"), rating.getAverageRating());
+        assertEquals(List.of(0L, 0L, 0L, 2L, 1L), rating.getHistogram());
+    }
+
+    @Test
+    void removeTakesAReviewBackOut() {
+        var rating = new ProductRating(7);
+        rating.add(1);
+        rating.add(5);
+
+        rating.remove(1);
+
+        assertEquals(1, rating.getReviewCount());
+        assertEquals(new BigDecimal("5.00"), rating.getAverageRating());
+        assertEquals(List.of(0L, 0L, 0L, 0L, 1L), rating.getHistogram());
+
+        rating.remove(5);
+
+        assertEquals(0, rating.getReviewCount());
+        assertNull(rating.getAverageRating());
+    }
+
+    @Test
+    void ratingsOutOfRangeAreRejectedWithoutChangingTheTotals() {
+        var rating = new ProductRating(7);
+        rating.add(3);
+
+        assertThrows(IllegalArgumentException.class, () -> rating.add(0));
+        assertThrows(IllegalArgumentException.class, () -> rating.remove(6));
+
+        assertEquals(1, rating.getReviewCount());
+        assertEquals(List.of(0L, 0L, 1L, 0L, 0L), rating.getHistogram());
+    }
+}
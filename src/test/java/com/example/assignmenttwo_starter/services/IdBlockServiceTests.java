@@ -0,0 +1,54 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.application.AssignmentTwoStarterApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(classes = AssignmentTwoStarterApplication.class, properties = "invoice.prerender.enabled=false")
+class IdBlockServiceTests {
+
+    @Autowired
+    private IdBlockService idBlockService;
+
+    @Test
+    void reserveBlockStartsAfterTheGreatestIdInUse() {
+        assertEquals(43, idBlockService.reserveBlock("test-max-id", 10, () -> 42));
+        assertEquals(53, idBlockService.reserveBlock("test-max-id", 10, () -> 42));
+    }
+
+    @Test
+    void concurrentReservationsOfANewCounterGetConsecutiveBlocks() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return idBlockService.reserveBlock("test-concurrent", 10, () -> 0);
+                }));
+            }
+            start.countDown();
+
+            List<Integer> starts = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                starts.add(future.get());
+            }
+            starts.sort(null);
+            assertEquals(List.of(1, 11, 21, 31, 41, 51, 61, 71), starts);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.application.AssignmentTwoStarterApplication;
+import com.example.assignmenttwo_starter.model.Order;
+import com.example.assignmenttwo_starter.model.OrderFilter;
+import com.example.assignmenttwo_starter.repositories.OrderRepository;
+import com.example.assignmenttwo_starter.utilities.KeysetPage;
+import com.example.assignmenttwo_starter.utilities.PageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that each condition of an {@link OrderFilter} selects the same orders as filtering all of them in memory,
+ * and that paging through the filtered orders forward and backward visits each of them once
+ */
+@SpringBootTest(classes = AssignmentTwoStarterApplication.class, properties = "invoice.prerender.enabled=false")
+class OrderServiceTests {
+    private static final int PAGE_SIZE = 7;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private List<Order> orders;
+
+    @BeforeEach
+    void setUp() {
+        orders = new ArrayList<>(orderRepository.findAll());
+        orders.sort(Comparator.comparing(Order::getId));
+    }
+
+    @Test
+    void noConditionsSelectsEveryOrder() {
+        assertFiltered(new OrderFilter(null, null, null, null, null, null), order -> true);
+    }
+
+    @Test
+    void statusConditionSelectsOrdersWithAnyOfTheStatuses() {
+        Set<Integer> statusIds = Set.of(3, 5);
+        assertFiltered(new OrderFilter(statusIds, null, null, null, null, null),
+                order -> order.getOrderStatus() != null && statusIds.contains(order.getOrderStatus().getId()));
+    }
+
+    @Test
+    void dateConditionsIncludeFromAndExcludeTo() {
+        Date from = getMedian(Order::getOrderDate);
+        Date to = orders.stream().map(Order::getOrderDate).filter(date -> date != null && date.after(from)).max(Comparator.naturalOrder()).orElseThrow();
+        assertFiltered(new OrderFilter(null, from, to, null, null, null),
+                order -> order.getOrderDate() != null && !order.getOrderDate().before(from) && order.getOrderDate().before(to));
+    }
+
+    @Test
+    void customerConditionSelectsTheOrdersOfOneCustomer() {
+        Integer customerId = orders.get(orders.size() / 2).getCustomer().getId();
+        assertFiltered(new OrderFilter(null, null, null, customerId, null, null),
+                order -> order.getCustomer() != null && customerId.equals(order.getCustomer().getId()));
+    }
+
+    @Test
+    void totalConditionsIncludeBothBounds() {
+        BigDecimal minTotal = getMedian(Order::getTotal);
+        BigDecimal maxTotal = orders.stream().map(Order::getTotal).filter(total -> total != null && total.compareTo(minTotal) > 0)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        assertFiltered(new OrderFilter(null, null, null, null, minTotal, maxTotal),
+                order -> order.getTotal() != null && order.getTotal().compareTo(minTotal) >= 0 && order.getTotal().compareTo(maxTotal) <= 0);
+    }
+
+    @Test
+    void conditionsAreCombined() {
+        Set<Integer> statusIds = Set.of(3, 5);
+        BigDecimal minTotal = getMedian(Order::getTotal);
+        assertFiltered(new OrderFilter(statusIds, null, null, null, minTotal, null),
+                order -> order.getOrderStatus() != null && statusIds.contains(order.getOrderStatus().getId())
+                        && order.getTotal() != null && order.getTotal().compareTo(minTotal) >= 0);
+    }
+
+    /**
+     * Pages forward from the first page to the last and back again, and checks both walks and the count against the expected orders
+     */
+    private void assertFiltered(OrderFilter filter, Predicate<Order> expected) {
+        List<Integer> expectedIds = orders.stream().filter(expected).map(Order::getId).toList();
+        assertFalse(expectedIds.isEmpty(), "The filter should select some orders");
+        assertEquals(expectedIds.size(), orderService.count(filter));
+
+        List<Integer> forwardIds = new ArrayList<>();
+        KeysetPage<Order> page = read(filter, null);
+        assertNull(page.previousCursor());
+        forwardIds.addAll(getIds(page));
+        while (page.nextCursor() != null) {
+            page = read(filter, page.nextCursor());
+            forwardIds.addAll(getIds(page));
+        }
+        assertEquals(expectedIds, forwardIds);
+
+        List<Integer> backwardIds = new ArrayList<>(getIds(page));
+        Collections.reverse(backwardIds);
+        while (page.previousCursor() != null) {
+            page = read(filter, page.previousCursor());
+            List<Integer> ids = new ArrayList<>(getIds(page));
+            Collections.reverse(ids);
+            backwardIds.addAll(ids);
+        }
+        Collections.reverse(backwardIds);
+        assertEquals(expectedIds, backwardIds);
+    }
+
+    private KeysetPage<Order> read(OrderFilter filter, String cursor) {
+        return KeysetPage.read(PageCursor.decode(cursor),
+                afterId -> orderService.findSliceAfter(filter, afterId, PAGE_SIZE),
+                beforeId -> orderService.findSliceBefore(filter, beforeId, PAGE_SIZE),
+                Order::getId);
+    }
+
+    private static List<Integer> getIds(KeysetPage<Order> page) {
+        return page.content().stream().map(Order::getId).toList();
+    }
+
+    private <T extends Comparable<T>> T getMedian(Function<Order, T> value) {
+        List<T> values = orders.stream().map(value).filter(Objects::nonNull).sorted().toList();
+        return values.get(values.size() / 2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.assignmenttwo_starter.services;
+
+import com.example.assignmenttwo_starter.application.AssignmentTwoStarterApplication;
+import com.example.assignmenttwo_starter.model.ProductRating;
+import com.example.assignmenttwo_starter.model.Review;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the rating totals rebuilt at startup and the ones kept up to date by writing reviews agree with the reviews table
+ */
+@SpringBootTest(classes = AssignmentTwoStarterApplication.class, properties = "invoice.prerender.enabled=false")
+class ReviewServiceTests {
+
+    @Autowired
+    private ReviewService reviewService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rebuiltRatingsMatchTheReviews() {
+        reviewService.rebuildRatings();
+
+        Map<Integer, List<Long>> expected = getHistogramsFromReviews();
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, getHistograms(expected));
+    }
+
+    @Test
+    void creatingAndDeletingReviewsKeepsTheRatingsInStepWithARebuild() {
+        Integer productId = jdbcTemplate.queryForObject("SELECT MIN(product_id) FROM products", Integer.class);
+        Integer customerId = jdbcTemplate.queryForObject("SELECT MIN(customer_id) FROM customers", Integer.class);
+        long reviewCount = reviewService.getRating(productId).getReviewCount();
+
+        Review kept = reviewService.createReview(productId, customerId, 2, "Kept");
+        Review deleted = reviewService.createReview(productId, customerId, 5, null);
+        assertTrue(reviewService.deleteReview(productId, deleted.getId()));
+
+        ProductRating rating = reviewService.getRating(productId);
+        assertEquals(reviewCount + 1, rating.getReviewCount());
+        List<Long> incremental = rating.getHistogram();
+
+        reviewService.rebuildRatings();
+
+        assertEquals(incremental, reviewService.getRating(productId).getHistogram());
+        assertEquals(getHistogramsFromReviews().get(productId), incremental);
+        assertTrue(reviewService.deleteReview(productId, kept.getId()));
+    }
+
+    private Map<Integer, List<Long>> getHistogramsFromReviews() {
+        Map<Integer, List<Long>> histograms = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, " +
+                        "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), " +
+                        "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) " +
+                        "FROM reviews WHERE product_id IS NOT NULL AND rating BETWEEN 1 AND 5 GROUP BY product_id",
+                resultSet -> {
+                    histograms.put(resultSet.getInt(1), List.of(resultSet.getLong(2), resultSet.getLong(3),
+                            resultSet.getLong(4), resultSet.getLong(5), resultSet.getLong(6)));
+                });
+        return histograms;
+    }
+
+    private Map<Integer, List<Long>> getHistograms(Map<Integer, ?> productIds) {
+        Map<Integer, List<Long>> histograms = new HashMap<>();
+        reviewService.getRatings(productIds.keySet()).forEach((productId, rating) -> histograms.put(productId, rating.getHistogram()));
+        return histograms;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockIdAllocatorTests {
+
+    @Test
+    void handsOutTheIdsOfABlockBeforeReservingTheNext() {
+        List<Integer> reservations = new ArrayList<>();
+        var nextStart = new AtomicInteger(100);
+        var allocator = new BlockIdAllocator(size -> {
+            reservations.add(size);
+            return nextStart.getAndAdd(size + 10);
+        }, 3);
+
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(allocator.nextId());
+        }
+
+        // the third block is reserved only when the seventh id is asked for; the gaps between blocks are never handed out
+        assertEquals(List.of(100, 101, 102, 113, 114, 115, 126), ids);
+        assertEquals(List.of(3, 3, 3), reservations);
+    }
+
+    @Test
+    void rejectsBlocksSmallerThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new BlockIdAllocator(size -> 1, 0));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIdsAndReserveEachBlockOnce() throws Exception {
+        int threads = 8;
+        int idsPerThread = 1000;
+        int blockSize = 50;
+        var reservations = new AtomicInteger();
+        var nextStart = new AtomicInteger(1);
+        var allocator = new BlockIdAllocator(size -> {
+            reservations.incrementAndGet();
+            return nextStart.getAndAdd(size);
+        }, blockSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<List<Integer>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> ids = new ArrayList<>(idsPerThread);
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(allocator.nextId());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> ids = new HashSet<>();
+            for (Future<List<Integer>> future : futures) {
+                ids.addAll(future.get());
+            }
+
+            // every id is handed out once, and with no block left half used no ids were skipped either
+            int total = threads * idsPerThread;
+            assertEquals(total, ids.size());
+            assertTrue(ids.stream().allMatch(id -> id >= 1 && id <= total));
+            assertEquals(total / blockSize, reservations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
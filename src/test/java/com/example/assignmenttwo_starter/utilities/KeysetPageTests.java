@@ -0,0 +1,79 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetPageTests {
+    private static final List<Integer> IDS = List.of(2, 3, 5, 8, 13, 21, 34);
+    private static final int PAGE_SIZE = 3;
+
+    @Test
+    void pageCursorsSurviveEncoding() {
+        assertEquals(PageCursor.after(42), PageCursor.decode(PageCursor.after(42).encode()));
+        assertEquals(PageCursor.before(-7), PageCursor.decode(PageCursor.before(-7).encode()));
+        assertNull(PageCursor.decode(" "));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(PageCursor.after(1).encode().substring(1)));
+    }
+
+    @Test
+    void readingForwardVisitsEveryItemOnce() {
+        KeysetPage<Integer> first = read(null);
+        assertEquals(List.of(2, 3, 5), first.content());
+        assertNull(first.previousCursor());
+
+        KeysetPage<Integer> second = read(first.nextCursor());
+        assertEquals(List.of(8, 13, 21), second.content());
+
+        KeysetPage<Integer> last = read(second.nextCursor());
+        assertEquals(List.of(34), last.content());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void readingBackwardReturnsThePreviousPagesInAscendingOrder() {
+        KeysetPage<Integer> last = read(read(read(null).nextCursor()).nextCursor());
+
+        KeysetPage<Integer> second = read(last.previousCursor());
+        assertEquals(List.of(8, 13, 21), second.content());
+        assertEquals(PageCursor.after(21).encode(), second.nextCursor());
+
+        KeysetPage<Integer> first = read(second.previousCursor());
+        assertEquals(List.of(2, 3, 5), first.content());
+        assertNull(first.previousCursor());
+        assertEquals(PageCursor.after(5).encode(), first.nextCursor());
+    }
+
+    @Test
+    void readingPastTheEndGivesAnEmptyPageWithoutCursors() {
+        KeysetPage<Integer> page = read(PageCursor.after(34).encode());
+
+        assertEquals(List.of(), page.content());
+        assertNull(page.nextCursor());
+        assertNull(page.previousCursor());
+    }
+
+    private static KeysetPage<Integer> read(String cursor) {
+        IntFunction<Slice<Integer>> after = afterId -> slice(IDS.stream().filter(id -> id > afterId).toList());
+        IntFunction<Slice<Integer>> before = beforeId -> slice(IDS.stream().filter(id -> id < beforeId).sorted(Comparator.reverseOrder()).toList());
+        ToIntFunction<Integer> idFunction = Integer::intValue;
+        return KeysetPage.read(PageCursor.decode(cursor), after, before, idFunction);
+    }
+
+    private static Slice<Integer> slice(List<Integer> ids) {
+        var content = new ArrayList<>(ids.subList(0, Math.min(PAGE_SIZE, ids.size())));
+        return new SliceImpl<>(content, PageRequest.of(0, PAGE_SIZE), ids.size() > PAGE_SIZE);
+    }
+}
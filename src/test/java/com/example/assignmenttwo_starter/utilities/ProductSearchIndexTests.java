@@ -0,0 +1,117 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import com.example.assignmenttwo_starter.model.CatalogSnapshot.ProductEntry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTests {
+
+    @Test
+    void tokenizeSplitsOnNonLettersAndLowerCases() {
+        assertEquals(List.of("dog", "bed", "xl", "2"), List.copyOf(ProductSearchIndex.tokenize("Dog-Bed, XL (2) dog")));
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void searchMatchesEveryQueryTermAsAWholeTermOrPrefix() {
+        var index = new ProductSearchIndex();
+        index.put(product(1, "Dog Bed", "Soft and warm"));
+        index.put(product(2, "Cat Bed", "Soft"));
+        index.put(product(3, "Dog Bowl", "Steel"));
+
+        assertEquals(List.of(1), ids(index.search("dog bed", null, null, null)));
+        assertEquals(Set.of(1, 3), Set.copyOf(ids(index.search("do", null, null, null))));
+        assertEquals(List.of(), ids(index.search("dog fish", null, null, null)));
+    }
+
+    @Test
+    void searchRanksNamesOverDescriptionsWholeTermsOverPrefixesAndRareTermsOverCommonOnes() {
+        var index = new ProductSearchIndex();
+        index.put(product(1, "Leash", "For a small dog"));
+        index.put(product(2, "Dog Leash", "Red"));
+        index.put(product(3, "Doghouse", "Wooden"));
+
+        assertEquals(List.of(2, 3, 1), ids(index.search("dog", null, null, null)));
+
+        var rareAndCommon = new ProductSearchIndex();
+        rareAndCommon.put(product(1, "Cap", null));
+        rareAndCommon.put(product(2, "Cat", null));
+        rareAndCommon.put(product(3, "Cap", null));
+
+        // both terms match the prefix the same way, "cat" is in one product and "cap" in two
+        assertEquals(List.of(2, 1, 3), ids(rareAndCommon.search("ca", null, null, null)));
+    }
+
+    @Test
+    void searchWithoutTermsReturnsEveryProductMatchingTheFilters() {
+        var index = new ProductSearchIndex();
+        index.put(product(1, "Dog Bed", null, "30.00", 1));
+        index.put(product(2, "Cat Bed", null, "20.00", 2));
+        index.put(product(3, "Dog Bowl", null, "5.00", 1));
+
+        assertEquals(List.of(1, 2, 3), ids(index.search(" ", null, null, null)));
+        assertEquals(List.of(1, 3), ids(index.search(null, 1, null, null)));
+        assertEquals(List.of(1, 2), ids(index.search("", null, new BigDecimal("20.00"), null)));
+        assertEquals(List.of(2), ids(index.search("bed", null, null, new BigDecimal("25"))));
+    }
+
+    @Test
+    void putReplacesAProductsTermsAndRemoveDropsThem() {
+        var index = new ProductSearchIndex();
+        index.put(product(1, "Dog Bed", null));
+        index.put(product(1, "Cat Tree", null));
+
+        assertEquals(List.of(), ids(index.search("dog", null, null, null)));
+        assertEquals(List.of(1), ids(index.search("tree", null, null, null)));
+        assertEquals(2, index.getStatistics().terms());
+
+        index.remove(1);
+        index.remove(2);
+
+        assertNull(index.get(1));
+        assertEquals(List.of(), ids(index.search("tree", null, null, null)));
+        assertEquals(0, index.getStatistics().terms());
+        assertEquals(0, index.getStatistics().postings());
+    }
+
+    @Test
+    void postingListsStaySortedWhenProductsAreAddedAndRemovedOutOfOrder() {
+        var index = new ProductSearchIndex();
+        // Every product shares the term "toy"; products with an even id also have it in their description, so they weigh more.
+        // Adding them out of order grows the posting list and shifts its entries, removing some shifts them back.
+        int[] ids = {9, 2, 7, 4, 1, 8, 3, 6, 5};
+        for (int id : ids) {
+            index.put(product(id, "Toy " + id, id % 2 == 0 ? "toy" : null));
+        }
+        for (int id : new int[]{4, 9, 1}) {
+            index.remove(id);
+        }
+
+        List<ProductSearchIndex.Hit> hits = index.search("toy", null, null, null);
+        assertEquals(List.of(2, 6, 8, 3, 5, 7), ids(hits));
+        assertEquals(hits.get(0).score(), hits.get(2).score());
+        assertTrue(hits.get(2).score() > hits.get(3).score());
+        assertEquals(6, index.getStatistics().products());
+        // one posting per product for "toy" and one for its number
+        assertEquals(12, index.getStatistics().postings());
+    }
+
+    private static List<Integer> ids(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(hit -> hit.product().id()).toList();
+    }
+
+    private static ProductEntry product(int id, String name, String description) {
+        return product(id, name, description, "10.00", 1);
+    }
+
+    private static ProductEntry product(int id, String name, String description, String price, int categoryId) {
+        return new ProductEntry(id, name, description, new BigDecimal(price), null, categoryId, "Category " + categoryId);
+    }
+}
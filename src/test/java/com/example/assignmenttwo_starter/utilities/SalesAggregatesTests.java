@@ -0,0 +1,111 @@
+package com.example.assignmenttwo_starter.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SalesAggregatesTests {
+    private static final LocalDate MONDAY = LocalDate.of(2023, 3, 6);
+    private static final LocalDate TUESDAY = LocalDate.of(2023, 3, 7);
+
+    @Test
+    void putAddsAnOrderToTheDayProductAndOverallTotals() {
+        var aggregates = new SalesAggregates();
+        aggregates.put(1, sales(MONDAY, "12.50", line(10, 2, "10.00"), line(20, 1, "2.50")));
+
+        assertTotals(aggregates.getOverall(), 1, 3, "12.50");
+        assertTotals(aggregates.getDays().get(MONDAY), 1, 3, "12.50");
+        assertTotals(aggregates.getProducts().get(10), 1, 2, "10.00");
+        assertTotals(aggregates.getProducts().get(20), 1, 1, "2.50");
+    }
+
+    @Test
+    void putReplacesWhatAnOrderContributedBefore() {
+        var aggregates = new SalesAggregates();
+        aggregates.put(1, sales(MONDAY, "12.50", line(10, 2, "10.00"), line(20, 1, "2.50")));
+        aggregates.put(2, sales(MONDAY, "5.00", line(10, 1, "5.00")));
+
+        aggregates.put(1, sales(TUESDAY, "7.50", line(20, 3, "7.50")));
+
+        assertTotals(aggregates.getOverall(), 2, 4, "12.50");
+        assertTotals(aggregates.getDays().get(MONDAY), 1, 1, "5.00");
+        assertTotals(aggregates.getDays().get(TUESDAY), 1, 3, "7.50");
+        assertTotals(aggregates.getProducts().get(10), 1, 1, "5.00");
+        assertTotals(aggregates.getProducts().get(20), 1, 3, "7.50");
+    }
+
+    @Test
+    void putNullRemovesAnOrderAndDropsEmptyTotals() {
+        var aggregates = new SalesAggregates();
+        aggregates.put(1, sales(MONDAY, "12.50", line(10, 2, "10.00"), line(20, 1, "2.50")));
+
+        aggregates.put(1, null);
+        aggregates.put(2, null);
+
+        assertTotals(aggregates.getOverall(), 0, 0, "0.00");
+        assertTrue(aggregates.getDays().isEmpty());
+        assertTrue(aggregates.getProducts().isEmpty());
+    }
+
+    @Test
+    void putCountsOrdersWithoutADateOnlyOverall() {
+        var aggregates = new SalesAggregates();
+        aggregates.put(1, sales(null, "4.00", line(10, 1, "4.00")));
+
+        assertTotals(aggregates.getOverall(), 1, 1, "4.00");
+        assertTrue(aggregates.getDays().isEmpty());
+        assertTotals(aggregates.getProducts().get(10), 1, 1, "4.00");
+    }
+
+    @Test
+    void putAllSumsAggregatesOverDifferentOrders() {
+        var lower = new SalesAggregates();
+        lower.put(1, sales(MONDAY, "12.50", line(10, 2, "10.00"), line(20, 1, "2.50")));
+        var upper = new SalesAggregates();
+        upper.put(2, sales(MONDAY, "5.00", line(10, 1, "5.00")));
+        upper.put(3, sales(TUESDAY, "3.00", line(30, 3, "3.00")));
+
+        lower.putAll(upper);
+
+        assertTotals(lower.getOverall(), 3, 7, "20.50");
+        assertTotals(lower.getDays().get(MONDAY), 2, 4, "17.50");
+        assertTotals(lower.getDays().get(TUESDAY), 1, 3, "3.00");
+        assertTotals(lower.getProducts().get(10), 2, 3, "15.00");
+        assertTotals(lower.getProducts().get(30), 1, 3, "3.00");
+    }
+
+    @Test
+    void putAfterPutAllReplacesAnOrderTakenFromTheOtherAggregates() {
+        var lower = new SalesAggregates();
+        lower.put(1, sales(MONDAY, "12.50", line(10, 2, "10.00"), line(20, 1, "2.50")));
+        var upper = new SalesAggregates();
+        upper.put(2, sales(TUESDAY, "3.00", line(30, 3, "3.00")));
+        lower.putAll(upper);
+
+        lower.put(2, null);
+
+        assertTotals(lower.getOverall(), 1, 3, "12.50");
+        assertFalse(lower.getDays().containsKey(TUESDAY));
+        assertFalse(lower.getProducts().containsKey(30));
+    }
+
+    private static SalesAggregates.OrderSales sales(LocalDate date, String total, SalesAggregates.LineSales... lines) {
+        return new SalesAggregates.OrderSales(date, new BigDecimal(total), List.of(lines));
+    }
+
+    private static SalesAggregates.LineSales line(int productId, long units, String revenue) {
+        return new SalesAggregates.LineSales(productId, units, new BigDecimal(revenue));
+    }
+
+    private static void assertTotals(SalesAggregates.Totals totals, long count, long units, String revenue) {
+        assertEquals(count, totals.getCount());
+        assertEquals(units, totals.getUnits());
+        assertEquals(0, new BigDecimal(revenue).compareTo(totals.getRevenue()), "Expected revenue " + revenue + " but was " + totals.getRevenue());
+    }
+}